@@ -0,0 +1,92 @@
+package src.models;
+
+import org.junit.jupiter.api.Test;
+import src.util.SortUtil;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceConverterTest {
+
+    private static final ExchangeRates RATES = ExchangeRates.of("USD", Map.of("EUR", 0.5, "GBP", 0.25));
+
+    private static final List<String> MODELS = List.of("quoted-base", "default-eur", "first-rated", "no-rate", "tie");
+
+    private static InventoryVersion version() {
+        return new InventoryVersion(1, List.of(
+                car("quoted-base", "USD", 300, Map.of("USD", 300.0, "EUR", 100.0)),
+                car("default-eur", "EUR", 50, Map.of("EUR", 50.0)),
+                car("first-rated", null, 0, Map.of("CHF", 1.0, "GBP", 50.0)),
+                car("no-rate", "CHF", 10, Map.of("CHF", 10.0)),
+                car("tie", "USD", 300, Map.of("USD", 300.0))), RATES);
+    }
+
+    @Test
+    void basePricesPreferQuotedThenDefaultThenFirstRatedPrice() {
+        PriceConverter converter = version().getInventory().converter();
+
+        assertArrayEquals(new double[]{300, 100, 200, Double.NaN, 300}, converter.basePrices());
+    }
+
+    @Test
+    void columnsPreferQuotedPricesOverConversions() {
+        PriceConverter converter = version().getInventory().converter();
+
+        assertArrayEquals(new double[]{100, 50, 100, Double.NaN, 150}, converter.column("eur"));
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN, 1, 10, Double.NaN}, converter.column("CHF"));
+        assertTrue(converter.supports("GBP"));
+        assertFalse(converter.supports("JPY"));
+        assertThrows(IllegalArgumentException.class, () -> converter.column("JPY"));
+    }
+
+    @Test
+    void withoutRatesOnlyQuotedPricesAreAvailable() {
+        PriceConverter converter = new InventoryVersion(1, version().getCars()).getInventory().converter();
+
+        assertNull(converter.basePrices());
+        assertArrayEquals(new double[]{300, Double.NaN, Double.NaN, Double.NaN, 300}, converter.column("USD"));
+    }
+
+    @Test
+    void sortByPriceKeepsCarsWithoutPriceLast() {
+        InventoryVersion version = version();
+
+        assertEquals(List.of("default-eur", "first-rated", "quoted-base", "tie", "no-rate"),
+                models(SortUtil.sortByPrice(version, "USD", "asc", 0, Integer.MAX_VALUE)));
+        assertEquals(List.of("quoted-base", "tie", "first-rated", "default-eur", "no-rate"),
+                models(SortUtil.sortByPrice(version, "USD", "desc", 0, Integer.MAX_VALUE)));
+        assertEquals(List.of("first-rated", "quoted-base"),
+                models(SortUtil.sortByPrice(version, "usd", "asc", 1, 2)));
+    }
+
+    @Test
+    void sortByPriceRepricesTheReturnedViewsOnly() {
+        InventoryVersion version = version();
+
+        Car first = SortUtil.sortByPrice(version, "EUR", "asc", 0, 1).get(0);
+        assertEquals("default-eur", first.getModel());
+        Car converted = SortUtil.sortByPrice(version, "EUR", "desc", 0, 1).get(0);
+        assertEquals("tie", converted.getModel());
+        assertEquals(150, converted.getDefaultPrice());
+        assertEquals("EUR", converted.getDefaultCurrency());
+        assertEquals("USD", version.getInventory().car(MODELS.indexOf("tie")).getDefaultCurrency());
+    }
+
+    private static Car car(String model, String defaultCurrency, double defaultPrice, Map<String, Double> prices) {
+        Car car = new Car(model, "SUV", defaultPrice, prices);
+        car.setBrand("Brand");
+        car.setDefaultCurrency(defaultCurrency);
+        return car;
+    }
+
+    private static List<String> models(List<Car> cars) {
+        return cars.stream().map(Car::getModel).toList();
+    }
+}
@@ -0,0 +1,76 @@
+package src.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RadixSortTest {
+
+    @Test
+    void sortsByUnsignedKeyAndKeepsTiesInOrder() {
+        // more rows than one chunk, few distinct keys, so ties cross chunk boundaries
+        long[] keys = new Random(1).longs(200_000, 0, 1000).map(key -> key * 0x0101_0101_0101L - 500).toArray();
+
+        assertArrayEquals(expected(keys), RadixSort.sort(keys));
+    }
+
+    @Test
+    void descendingKeysReverseTheOrderButNotTies() {
+        long[] keys = new Random(2).longs(100_000, 0, 64).toArray();
+        long[] descending = Arrays.stream(keys).map(RadixSort::descending).toArray();
+
+        int[] sorted = RadixSort.sort(descending);
+        for (int i = 1; i < sorted.length; i++) {
+            long previous = keys[sorted[i - 1]];
+            long current = keys[sorted[i]];
+            if (previous < current || (previous == current && sorted[i - 1] > sorted[i])) {
+                throw new AssertionError("Out of order at " + i);
+            }
+        }
+        assertArrayEquals(expected(descending), sorted);
+    }
+
+    @Test
+    void sortsTheGivenRowsWithoutModifyingTheInput() {
+        long[] keys = {3, 1, 2, 1};
+        int[] rows = {10, 11, 12, 13};
+
+        assertArrayEquals(new int[]{11, 13, 12, 10}, RadixSort.sort(keys, rows));
+        assertArrayEquals(new long[]{3, 1, 2, 1}, keys);
+        assertArrayEquals(new int[]{10, 11, 12, 13}, rows);
+        assertThrows(IllegalArgumentException.class, () -> RadixSort.sort(new long[1], new int[2]));
+    }
+
+    @Test
+    void priceAndIntKeysFollowTheNaturalOrder() {
+        double[] prices = {Double.NaN, 12.5, -0.0, Double.NEGATIVE_INFINITY, 0.0, -3, Double.MAX_VALUE, 1e-300};
+        long[] priceKeys = Arrays.stream(prices).mapToLong(RadixSort::priceKey).toArray();
+        double[] sortedPrices = Arrays.stream(RadixSort.sort(priceKeys)).mapToDouble(i -> prices[i]).toArray();
+        double[] expectedPrices = prices.clone();
+        Arrays.sort(expectedPrices);
+        assertArrayEquals(expectedPrices, sortedPrices);
+        assertEquals(Double.NaN, sortedPrices[sortedPrices.length - 1]);
+
+        int[] values = {5, Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE, -19000};
+        long[] intKeys = Arrays.stream(values).mapToLong(RadixSort::intKey).toArray();
+        int[] sortedValues = Arrays.stream(RadixSort.sort(intKeys)).map(i -> values[i]).toArray();
+        int[] expectedValues = values.clone();
+        Arrays.sort(expectedValues);
+        assertArrayEquals(expectedValues, sortedValues);
+    }
+
+    /** Positions stably sorted by unsigned key, through a comparison sort. */
+    private static int[] expected(long[] keys) {
+        return IntStream.range(0, keys.length).boxed()
+                .sorted(Comparator.comparing(i -> keys[i], Long::compareUnsigned))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,122 @@
+package src.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchIndexTest {
+
+    /** Few letters, so terms share many trigrams and prefixes. */
+    private static final String ALPHABET = "abcAB-1 ";
+
+    private final List<Car> cars = cars(new Random(7), 5_000);
+    private final SearchIndex index = new InventoryVersion(1, cars).getSearchIndex();
+
+    @Test
+    void substringAndPrefixQueriesMatchBruteForce() {
+        Random random = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            String text = word(random, 1 + random.nextInt(5));
+            if (text.isBlank()) continue;
+            assertArrayEquals(expectedRows(text, false), index.rows(text), text);
+            assertArrayEquals(expectedRows(text, true), index.rows(text + "*"), text + "*");
+        }
+    }
+
+    @Test
+    void queriesIgnoreCaseAndSurroundingBlanks() {
+        assertArrayEquals(index.rows("ab-"), index.rows("  AB- "));
+        assertArrayEquals(index.rows("Ca*"), index.rows(" cA *"));
+        assertArrayEquals(new int[0], index.rows("zzz"));
+        assertThrows(IllegalArgumentException.class, () -> index.rows(" * "));
+    }
+
+    @Test
+    void completionsMatchBruteForce() {
+        Random random = new Random(13);
+        for (int i = 0; i < 200; i++) {
+            String prefix = word(random, random.nextInt(4));
+            int limit = random.nextInt(40);
+            assertEquals(expectedCompletions(prefix, limit), index.complete(prefix, limit), prefix + " " + limit);
+        }
+        assertEquals(expectedCompletions("", 1_000), index.complete(null, 1_000));
+        assertThrows(IllegalArgumentException.class, () -> index.complete("a", -1));
+    }
+
+    private int[] expectedRows(String text, boolean prefix) {
+        String folded = InventoryIndex.fold(text.trim());
+        return IntStream.range(0, cars.size())
+                .filter(row -> matches(cars.get(row).getBrand(), folded, prefix)
+                        || matches(cars.get(row).getModel(), folded, prefix))
+                .toArray();
+    }
+
+    private static boolean matches(String value, String folded, boolean prefix) {
+        String term = InventoryIndex.fold(value);
+        return prefix ? term.startsWith(folded) : term.contains(folded);
+    }
+
+    private List<SearchIndex.Completion> expectedCompletions(String prefix, int limit) {
+        String folded = InventoryIndex.fold(prefix.trim());
+        List<SearchIndex.Completion> completions = new ArrayList<>();
+        addCompletions(Car::getBrand, SearchIndex.Field.BRAND, folded, completions);
+        addCompletions(Car::getModel, SearchIndex.Field.MODEL, folded, completions);
+        return completions.stream()
+                .sorted(Comparator.comparingInt(SearchIndex.Completion::cars).reversed()
+                        .thenComparing(completion -> InventoryIndex.fold(completion.text()))
+                        .thenComparing(SearchIndex.Completion::field))
+                .limit(limit)
+                .toList();
+    }
+
+    private void addCompletions(Function<Car, String> field, SearchIndex.Field name, String folded,
+                                List<SearchIndex.Completion> completions) {
+        // first spelling seen and number of cars of every folded value
+        Map<String, String> texts = new LinkedHashMap<>();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Car car : cars) {
+            String value = field.apply(car);
+            String term = InventoryIndex.fold(value);
+            texts.putIfAbsent(term, value);
+            counts.merge(term, 1, Integer::sum);
+        }
+        texts.forEach((term, text) -> {
+            if (term.startsWith(folded)) {
+                completions.add(new SearchIndex.Completion(text, name, counts.get(term)));
+            }
+        });
+    }
+
+    private static List<Car> cars(Random random, int count) {
+        String[] brands = IntStream.range(0, 40).mapToObj(i -> word(random, 2 + random.nextInt(6))).toArray(String[]::new);
+        String[] models = IntStream.range(0, 600).mapToObj(i -> word(random, 1 + random.nextInt(9))).toArray(String[]::new);
+        List<Car> cars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // skewed, so car counts differ between terms
+            Car car = new Car(models[(int) (models.length * Math.pow(random.nextDouble(), 3))], "SUV", 1000,
+                    Map.of("USD", 1000.0));
+            car.setBrand(brands[random.nextInt(brands.length)]);
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return word.toString();
+    }
+}
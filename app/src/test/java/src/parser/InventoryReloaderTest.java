@@ -0,0 +1,100 @@
+package src.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import src.models.Car;
+import src.models.InventoryVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryReloaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reloadReparsesOnlyDirtyRecords() throws Exception {
+        Path csv = write("CarsBrand.csv", csv("Toyota,01/15/2023", "Honda,11/20/2022", "Ford,03/10/2023"));
+        Path xml = write("carsType.xml", xml(car("SUV", "RAV4", 25000), car("Sedan", "Civic", 22000),
+                car("Truck", "F-150", 41000)));
+
+        try (InventoryReloader reloader = new InventoryReloader(new CarParserImplementation(), csv, xml)) {
+            List<Car> before = reloader.load().getCars();
+
+            // brand of row 0 and model of row 2 change, row 3 is appended
+            write("CarsBrand.csv", csv("Lexus,01/15/2023", "Honda,11/20/2022", "Ford,03/10/2023", "Kia,05/01/2024"));
+            write("carsType.xml", xml(car("SUV", "RAV4", 25000), car("Sedan", "Civic", 22000),
+                    car("Truck", "F-250", 41000), car("Hatchback", "Rio", 17000)));
+            assertTrue(reloader.reload());
+
+            InventoryVersion version = reloader.current();
+            assertEquals(2, version.getVersion());
+            List<Car> after = version.getCars();
+            assertEquals(4, after.size());
+            assertNotSame(before.get(0), after.get(0));
+            assertEquals("Lexus", after.get(0).getBrand());
+            assertSame(before.get(1), after.get(1));
+            assertEquals("F-250", after.get(2).getModel());
+            assertEquals("Ford", after.get(2).getBrand());
+            assertEquals("Rio", after.get(3).getModel());
+            assertEquals("Kia", after.get(3).getBrand());
+            assertEquals("USD", after.get(3).getDefaultCurrency());
+
+            assertFalse(reloader.reload());
+            assertSame(version, reloader.current());
+        }
+    }
+
+    @Test
+    void reloadIgnoresCarTagsInCommentsAndCdata() throws Exception {
+        Path csv = write("CarsBrand.csv", csv("Toyota,01/15/2023", "Honda,11/20/2022"));
+        Path xml = write("carsType.xml", xml(car("SUV", "RAV4", 25000), car("Sedan", "Civic", 22000)));
+
+        try (InventoryReloader reloader = new InventoryReloader(new CarParserImplementation(), csv, xml)) {
+            List<Car> before = reloader.load().getCars();
+
+            write("carsType.xml", xml(car("SUV", "RAV4", 25000),
+                    "    <!-- <car><model>Ghost</model></car> -->\n",
+                    car("Sedan", "<![CDATA[<car>]]>Civic", 22000)));
+            assertTrue(reloader.reload());
+
+            List<Car> after = reloader.current().getCars();
+            assertEquals(2, after.size());
+            assertSame(before.get(0), after.get(0));
+            assertEquals("<car>Civic", after.get(1).getModel());
+        }
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private static String csv(String... rows) {
+        StringBuilder csv = new StringBuilder("\"Brand,ReleaseDate\"\n");
+        for (String row : rows) {
+            csv.append('"').append(row).append("\"\n");
+        }
+        return csv.toString();
+    }
+
+    private static String xml(String... cars) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<cars>\n" + String.join("", cars) + "</cars>\n";
+    }
+
+    private static String car(String type, String model, double price) {
+        return "    <car>\n"
+                + "        <type>" + type + "</type>\n"
+                + "        <model>" + model + "</model>\n"
+                + "        <price currency=\"USD\">" + price + "</price>\n"
+                + "    </car>\n";
+    }
+}
@@ -0,0 +1,50 @@
+package src.benchmarks;
+
+import src.models.Car;
+import src.models.ParserMode;
+import src.parser.CarParserImplementation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Generated feed files shared by the benchmark states.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates a feed pair into a new temporary directory.
+     */
+    static Path generate(int cars, int currencies, double skew) throws IOException {
+        Path directory = Files.createTempDirectory("car-inventory-" + cars + "-");
+        new DatasetGenerator(cars, currencies, skew, DatasetGenerator.DEFAULT_SEED).write(directory);
+        return directory;
+    }
+
+    static Path csv(Path directory) {
+        return directory.resolve(DatasetGenerator.CSV_FILE);
+    }
+
+    static Path xml(Path directory) {
+        return directory.resolve(DatasetGenerator.XML_FILE);
+    }
+
+    /**
+     * Parses a generated feed pair the way {@code Main} does.
+     */
+    static List<Car> load(Path directory) throws Exception {
+        return new CarParserImplementation(ParserMode.STREAMING).build(csv(directory), xml(directory));
+    }
+
+    static void delete(Path directory) throws IOException {
+        if (directory == null) return;
+        Files.deleteIfExists(csv(directory));
+        Files.deleteIfExists(xml(directory));
+        Files.deleteIfExists(directory);
+    }
+}
@@ -0,0 +1,210 @@
+package src.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a matching {@code CarsBrand.csv} / {@code carsType.xml} pair of any size, in the layout of
+ * the sample feeds: row {@code i} of the CSV holds the brand and release date of car {@code i} of the XML.
+ * <p>
+ * The output depends only on the settings, so every run of a benchmark reads the same bytes. Brands
+ * follow a Zipf distribution: skew 0 picks them uniformly, skew 1 makes the most common brand five
+ * times as frequent as the fifth. The first currency is the default {@code <price>} of every car;
+ * all others are listed under {@code <prices>}.
+ * <pre>
+ * java -cp benchmarks.jar src.benchmarks.DatasetGenerator --cars 100000 [--currencies 4] [--skew 1.0] [--seed 42] [--out .]
+ * </pre>
+ */
+public final class DatasetGenerator {
+
+    public static final String CSV_FILE = "CarsBrand.csv";
+    public static final String XML_FILE = "carsType.xml";
+
+    public static final int DEFAULT_CURRENCIES = 4;
+    public static final double DEFAULT_SKEW = 1.0;
+    public static final long DEFAULT_SEED = 42;
+
+    private static final String[] BRANDS = {
+            "Toyota", "Volkswagen", "Ford", "Honda", "Hyundai", "Nissan", "Chevrolet", "BMW",
+            "Mercedes-Benz", "Kia", "Audi", "Renault", "Peugeot", "Tesla", "Mazda", "Subaru",
+            "Volvo", "Skoda", "Fiat", "Lexus", "Porsche", "Jeep", "Citroën", "Land Rover"
+    };
+    private static final String[] TYPES = {"SUV", "Sedan", "Truck", "Hatchback", "Coupe", "Van"};
+    private static final String[] MODELS = {
+            "RAV4", "Civic", "F-150", "Model X", "330i", "Q5", "Silverado", "C-Class", "Rogue", "Elantra",
+            "Golf", "Corolla", "Sportage", "CX-5", "Outback", "XC90", "Octavia", "500", "RX", "911"
+    };
+    /** Currency codes with their approximate value of one US dollar. */
+    private static final String[] CURRENCY_CODES = {
+            "USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "CNY", "SEK", "NOK",
+            "DKK", "PLN", "CZK", "HUF", "INR", "BRL", "MXN", "ZAR", "KRW", "SGD"
+    };
+    private static final double[] USD_RATES = {
+            1.0, 0.92, 0.79, 110.0, 0.88, 1.36, 1.52, 7.2, 10.6, 10.7,
+            6.9, 4.0, 23.0, 360.0, 83.0, 5.0, 17.0, 18.5, 1330.0, 1.35
+    };
+    private static final int FIRST_YEAR = 2015;
+    private static final int YEARS = 10;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int cars;
+    private final int currencies;
+    private final double skew;
+    private final long seed;
+
+    public DatasetGenerator(int cars, int currencies, double skew, long seed) {
+        if (cars < 0 || currencies < 1 || skew < 0) {
+            throw new IllegalArgumentException("Expected cars >= 0, currencies >= 1 and skew >= 0");
+        }
+        this.cars = cars;
+        this.currencies = currencies;
+        this.skew = skew;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes {@value #CSV_FILE} and {@value #XML_FILE} into the directory, replacing existing files.
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String[] codes = new String[currencies];
+        double[] rates = new double[currencies];
+        for (int i = 0; i < currencies; i++) {
+            codes[i] = currencyCode(i);
+            rates[i] = i < USD_RATES.length ? USD_RATES[i] : 1 + i % 7;
+        }
+        double[] brandWeights = cumulativeZipfWeights(BRANDS.length, skew);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int firstDay = Math.toIntExact(LocalDate.of(FIRST_YEAR, 1, 1).toEpochDay());
+        int days = Math.toIntExact(LocalDate.of(FIRST_YEAR + YEARS, 1, 1).toEpochDay()) - firstDay;
+
+        try (Writer csvOut = newWriter(directory.resolve(CSV_FILE));
+             Writer xmlOut = newWriter(directory.resolve(XML_FILE))) {
+            csvOut.write("\uFEFF\"Brand,ReleaseDate\"\n");
+            xmlOut.write("<cars>\n");
+
+            for (int i = 0; i < cars; i++) {
+                String brand = BRANDS[pick(brandWeights, random.nextDouble())];
+                LocalDate releaseDate = LocalDate.ofEpochDay(firstDay + random.nextInt(days));
+                csvOut.write('"');
+                csvOut.write(brand);
+                csvOut.write(',');
+                writeTwoDigits(csvOut, releaseDate.getMonthValue());
+                csvOut.write('/');
+                writeTwoDigits(csvOut, releaseDate.getDayOfMonth());
+                csvOut.write('/');
+                csvOut.write(Integer.toString(releaseDate.getYear()));
+                csvOut.write("\"\n");
+
+                long usdCents = 1_500_000 + random.nextLong(10_500_000);
+                xmlOut.write("    <car>\n        <type>");
+                xmlOut.write(TYPES[random.nextInt(TYPES.length)]);
+                xmlOut.write("</type>\n        <model>");
+                xmlOut.write(MODELS[random.nextInt(MODELS.length)]);
+                xmlOut.write("</model>\n");
+                writePrice(xmlOut, "        ", codes[0], usdCents, rates[0]);
+                if (currencies > 1) {
+                    xmlOut.write("        <prices>\n");
+                    for (int c = 1; c < currencies; c++) {
+                        writePrice(xmlOut, "            ", codes[c], usdCents, rates[c]);
+                    }
+                    xmlOut.write("        </prices>\n");
+                }
+                xmlOut.write("    </car>\n");
+            }
+            xmlOut.write("</cars>\n");
+        }
+    }
+
+    private static Writer newWriter(Path path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the i-th currency code: real ISO codes first, then XAA, XAB, ...
+     */
+    static String currencyCode(int i) {
+        if (i < CURRENCY_CODES.length) {
+            return CURRENCY_CODES[i];
+        }
+        int n = i - CURRENCY_CODES.length;
+        return "X" + (char) ('A' + n / 26 % 26) + (char) ('A' + n % 26);
+    }
+
+    private static double[] cumulativeZipfWeights(int count, double skew) {
+        double[] cumulative = new double[count];
+        double total = 0;
+        for (int rank = 0; rank < count; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < count; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, double value) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void writePrice(Writer out, String indent, String currency, long usdCents, double rate)
+            throws IOException {
+        long cents = Math.round(usdCents * rate);
+        out.write(indent);
+        out.write("<price currency=\"");
+        out.write(currency);
+        out.write("\">");
+        out.write(Long.toString(cents / 100));
+        out.write('.');
+        writeTwoDigits(out, (int) (cents % 100));
+        out.write("</price>\n");
+    }
+
+    private static void writeTwoDigits(Writer out, int value) throws IOException {
+        out.write('0' + value / 10);
+        out.write('0' + value % 10);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int cars = -1;
+        int currencies = DEFAULT_CURRENCIES;
+        double skew = DEFAULT_SKEW;
+        long seed = DEFAULT_SEED;
+        Path out = Path.of(".");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--cars" -> cars = Integer.parseInt(args[i + 1]);
+                case "--currencies" -> currencies = Integer.parseInt(args[i + 1]);
+                case "--skew" -> skew = Double.parseDouble(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--out" -> out = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (cars < 0 || args.length % 2 != 0) {
+            System.err.println("Usage: DatasetGenerator --cars N [--currencies C] [--skew S] [--seed X] [--out DIR]");
+            System.exit(2);
+        }
+        new DatasetGenerator(cars, currencies, skew, seed).write(out);
+        System.out.println("Wrote " + cars + " cars to " + out.toAbsolutePath());
+    }
+}
@@ -0,0 +1,56 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.util.DateFormatter;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing one MM/dd/yyyy release date per car, as done for every CSV row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateFormatterBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int cars;
+
+    private String[] dates;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(DatasetGenerator.DEFAULT_SEED);
+        int firstDay = Math.toIntExact(LocalDate.of(2015, 1, 1).toEpochDay());
+        dates = new String[cars];
+        for (int i = 0; i < cars; i++) {
+            LocalDate date = LocalDate.ofEpochDay(firstDay + random.nextInt(3653));
+            dates[i] = String.format("%02d/%02d/%04d", date.getMonthValue(), date.getDayOfMonth(), date.getYear());
+        }
+    }
+
+    @Benchmark
+    public long formatDate() {
+        long sum = 0;
+        for (String date : dates) {
+            sum += DateFormatter.formatDate(date).toEpochDay();
+        }
+        return sum;
+    }
+}
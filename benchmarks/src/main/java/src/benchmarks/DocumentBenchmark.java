@@ -0,0 +1,65 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.models.Car;
+import src.util.ViewFormatter;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the JSON and XML documents as Strings. Stops at 100K cars: the documents of 10M cars are
+ * longer than the largest possible String; {@link OutputBenchmark} streams them at every size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentBenchmark {
+
+    @Param({"1000", "100000"})
+    public int cars;
+
+    @Param({"4"})
+    public int currencies;
+
+    @Param({"1.0"})
+    public double skew;
+
+    private final ViewFormatter formatter = new ViewFormatter();
+    private List<Car> list;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        Path directory = BenchmarkData.generate(cars, currencies, skew);
+        try {
+            list = BenchmarkData.load(directory);
+        } finally {
+            BenchmarkData.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public String toJSON() {
+        return formatter.toJSON(list);
+    }
+
+    @Benchmark
+    public String toXML() {
+        return formatter.toXML(list);
+    }
+}
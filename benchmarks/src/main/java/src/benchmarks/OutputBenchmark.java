@@ -0,0 +1,99 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.models.Car;
+import src.util.CarSerializer;
+import src.util.ViewFormatter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering every car: the console table and the streaming serializers, written to a discarding
+ * stream so only the formatting is measured. {@link DocumentBenchmark} covers the String documents.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int cars;
+
+    @Param({"4"})
+    public int currencies;
+
+    @Param({"1.0"})
+    public double skew;
+
+    private final ViewFormatter formatter = new ViewFormatter();
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private List<Car> list;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        Path directory = BenchmarkData.generate(cars, currencies, skew);
+        try {
+            list = BenchmarkData.load(directory);
+        } finally {
+            BenchmarkData.delete(directory);
+        }
+        stdout = System.out;
+        System.setOut(new PrintStream(sink));
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreStdout() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public void printTable() {
+        formatter.printTable(list);
+    }
+
+    @Benchmark
+    public void writeJSON() throws IOException {
+        CarSerializer.writeJSON(list, false, sink);
+    }
+
+    @Benchmark
+    public void writeXML() throws IOException {
+        CarSerializer.writeXML(list, false, sink);
+    }
+
+    @Benchmark
+    public void writeNDJSON() throws IOException {
+        CarSerializer.writeNDJSON(list, false, sink);
+    }
+
+    @Benchmark
+    public void writeCSV() throws IOException {
+        CarSerializer.writeCSV(list, false, sink);
+    }
+
+    @Benchmark
+    public void writeBinary() throws IOException {
+        CarSerializer.writeBinary(list, false, sink);
+    }
+}
@@ -0,0 +1,83 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.models.Car;
+import src.models.ParserMode;
+import src.parser.CarParserImplementation;
+import src.util.CsvReader;
+import src.util.XmlParser;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the feeds: the DOM and StAX XML parsers, the CSV reader and the full merge per parser mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int cars;
+
+    @Param({"4"})
+    public int currencies;
+
+    @Param({"1.0"})
+    public double skew;
+
+    private Path directory;
+    private final XmlParser xmlParser = new XmlParser();
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        directory = BenchmarkData.generate(cars, currencies, skew);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public List<Car> xmlParseDom() throws Exception {
+        return xmlParser.parse(BenchmarkData.xml(directory));
+    }
+
+    @Benchmark
+    public List<Car> xmlParseStreaming() throws Exception {
+        return xmlParser.parseStreaming(BenchmarkData.xml(directory));
+    }
+
+    @Benchmark
+    public List<List<String>> csvRead() throws Exception {
+        return CsvReader.read(BenchmarkData.csv(directory));
+    }
+
+    @Benchmark
+    public List<Car> buildStreaming() throws Exception {
+        return new CarParserImplementation(ParserMode.STREAMING).build(BenchmarkData.csv(directory), BenchmarkData.xml(directory));
+    }
+
+    @Benchmark
+    public List<Car> buildParallel() throws Exception {
+        return new CarParserImplementation(ParserMode.PARALLEL).build(BenchmarkData.csv(directory), BenchmarkData.xml(directory));
+    }
+}
@@ -0,0 +1,132 @@
+package src.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.models.Car;
+import src.models.InventoryVersion;
+import src.models.SearchIndex;
+import src.util.FilterUtil;
+import src.util.SortUtil;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering and sorting a loaded inventory, on the car list and on the columnar/indexed version.
+ * The {@code Cached} variants go through the query cache and measure repeated identical queries.
+ * The {@code search} variants look up brand and model text in the search index, uncached.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    private static final String BRAND = "Honda";
+    private static final double MAX_PRICE = 30000;
+    private static final LocalDate FROM = LocalDate.of(2020, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2020, 3, 31);
+    private static final String SEARCH_PREFIX = "Co*";
+    private static final String SEARCH_SUBSTRING = "-cla";
+    private static final Map<String, String> TYPE_CURRENCIES = Map.of("SUV", "EUR", "Sedan", "JPY", "Truck", "USD");
+
+    @Param({"1000", "100000", "10000000"})
+    public int cars;
+
+    @Param({"4"})
+    public int currencies;
+
+    @Param({"1.0"})
+    public double skew;
+
+    private List<Car> list;
+    private InventoryVersion version;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        Path directory = BenchmarkData.generate(cars, currencies, skew);
+        try {
+            list = BenchmarkData.load(directory);
+        } finally {
+            BenchmarkData.delete(directory);
+        }
+        version = new InventoryVersion(1, list);
+    }
+
+    @Benchmark
+    public List<Car> filterList() {
+        return FilterUtil.filter(list, BRAND, MAX_PRICE, null);
+    }
+
+    @Benchmark
+    public List<Car> filterColumnar() {
+        return FilterUtil.filter(version.getInventory(), BRAND, MAX_PRICE, null);
+    }
+
+    @Benchmark
+    public List<Car> filterIndexed() {
+        int from = Math.toIntExact(FROM.toEpochDay());
+        int to = Math.toIntExact(TO.toEpochDay());
+        return version.getInventory().cars(version.getIndex().filter(BRAND, null, from, to));
+    }
+
+    @Benchmark
+    public List<Car> filterIndexedCached() {
+        return FilterUtil.filter(version, BRAND, null, FROM, TO);
+    }
+
+    @Benchmark
+    public int[] searchPrefix() {
+        return version.getSearchIndex().rows(SEARCH_PREFIX);
+    }
+
+    @Benchmark
+    public int[] searchSubstring() {
+        return version.getSearchIndex().rows(SEARCH_SUBSTRING);
+    }
+
+    @Benchmark
+    public List<SearchIndex.Completion> complete() {
+        return version.getSearchIndex().complete("c", 10);
+    }
+
+    @Benchmark
+    public List<Car> sortList() {
+        return SortUtil.sort(list, "price", "desc");
+    }
+
+    @Benchmark
+    public List<Car> sortIndexedCached() {
+        return SortUtil.sort(version, "price", "desc");
+    }
+
+    @Benchmark
+    public List<Car> sortTop10() {
+        return SortUtil.sort(version, "price", "desc", 0, 10);
+    }
+
+    @Benchmark
+    public List<Car> sortByTypeCurrencyList() {
+        return SortUtil.sortCarsByTypeCurrency(list, TYPE_CURRENCIES);
+    }
+
+    @Benchmark
+    public List<Car> sortByTypeCurrencyColumnar() {
+        return SortUtil.sortCarsByTypeCurrency(version, TYPE_CURRENCIES, 0, Integer.MAX_VALUE);
+    }
+}
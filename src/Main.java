@@ -1,15 +1,26 @@
 package src;
 
 import src.interfaces.CarParser;
-import src.models.Car;
+import src.metrics.Metrics;
+import src.models.ExchangeRates;
+import src.models.InventoryVersion;
 import src.models.OutputFormat;
+import src.models.ParserMode;
 import src.parser.CarParserImplementation;
+import src.parser.InventoryReloader;
+import src.parser.SnapshotCarParser;
+import src.server.InventoryServer;
+import src.util.BatchRunner;
+import src.util.ExportUtil;
 import src.util.FilterUtil;
 import src.util.SortUtil;
 import src.util.PrintUtil;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Scanner;
 
 import static src.util.PrintUtil.printCars;
@@ -22,31 +33,57 @@ public class Main {
 
     private static final String CSV_PATH = "CarsBrand.csv";
     private static final String XML_PATH = "carsType.xml";
+    private static final String SNAPSHOT_PATH = "inventory.snapshot";
+    private static final String RATES_PATH = "exchangeRates.properties";
+    private static final String PAGE_SIZE_ARG = "--page-size";
+    private static final String SERVE_ARG = "--serve";
+    private static final String PORT_ARG = "--port";
 
     private static OutputFormat outputFormat = OutputFormat.TABLE;
 
     public static void main(String[] args) throws Exception {
-        CarParser carParser = new CarParserImplementation();
-        List<Car> allCars = carParser.build(Path.of(CSV_PATH), Path.of(XML_PATH));
+        if (BatchRunner.isBatch(args)) {
+            System.exit(runBatch(args));
+        }
+        if (Arrays.asList(args).contains(SERVE_ARG)) {
+            serve(args);
+            return;
+        }
+
+        InventoryReloader inventory = createInventory();
+        Metrics.registerMBeans(inventory::current);
+        inventory.load();
+        inventory.start();
         Scanner scanner = new Scanner(System.in);
+        int pageSize = parseIntArg(args, PAGE_SIZE_ARG, 0, Integer.MAX_VALUE);
+        if (pageSize > 0) {
+            PrintUtil.setPaging(pageSize, (shown, total) -> {
+                PrintUtil.print("-- " + shown + " of " + total + " rows shown, press Enter for more or q to stop -- ");
+                return !scanner.nextLine().trim().equalsIgnoreCase("q");
+            });
+        }
 
         PrintUtil.printHeader("By default, view is set to Tabular format");
-        printCars(allCars, outputFormat);
+        printCars(inventory.current().getCars(), outputFormat);
 
         while (true) {
             PrintUtil.printMenu();
             String choice = scanner.nextLine().trim();
+            // feeds may have been reloaded in the background, always work on the latest version
+            InventoryVersion current = inventory.current();
 
             switch (choice) {
                 case "1" -> changeViewFormat(scanner);
-                case "2" -> FilterUtil.filterInventory(scanner, allCars, outputFormat);
-                case "3" -> SortUtil.sortInventory(scanner, allCars, outputFormat);
-                case "4" -> printCars(allCars, outputFormat);
-                case "5" -> {
+                case "2" -> FilterUtil.filterInventory(scanner, current, outputFormat);
+                case "3" -> SortUtil.sortInventory(scanner, current, outputFormat);
+                case "4" -> printCars(current.getCars(), outputFormat);
+                case "5" -> ExportUtil.exportInventory(scanner, current, outputFormat);
+                case "6" -> PrintUtil.printStats(current);
+                case "7" -> {
                     PrintUtil.println("Exiting program. Goodbye!");
                     return;
                 }
-                default -> PrintUtil.printError("Invalid input, valid inputs are: 1, 2, 3, 4 or 5");
+                default -> PrintUtil.printError("Invalid input, valid inputs are: 1, 2, 3, 4, 5, 6 or 7");
             }
 
             Thread.sleep(2000);
@@ -54,13 +91,99 @@ public class Main {
         }
     }
 
+    /**
+     * Sets up the feeds, with the exchange rates of {@value #RATES_PATH} when that file exists.
+     *
+     * @throws IOException              if the rates file cannot be read
+     * @throws IllegalArgumentException if the rates file is invalid
+     */
+    private static InventoryReloader createInventory() throws IOException {
+        CarParser carParser = new SnapshotCarParser(
+                new CarParserImplementation(ParserMode.STREAMING), Path.of(SNAPSHOT_PATH));
+        Path ratesPath = Path.of(RATES_PATH);
+        ExchangeRates rates = Files.exists(ratesPath) ? ExchangeRates.load(ratesPath) : ExchangeRates.NONE;
+        return new InventoryReloader(carParser, Path.of(CSV_PATH), Path.of(XML_PATH), rates);
+    }
+
+    /**
+     * Runs the {@code --command} and {@code --script} commands once against the loaded feeds,
+     * without the menu, pauses or file watching.
+     *
+     * @return the process exit code, see {@link BatchRunner}
+     */
+    private static int runBatch(String[] args) {
+        BatchRunner runner;
+        try {
+            runner = BatchRunner.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return BatchRunner.EXIT_USAGE;
+        }
+
+        InventoryReloader inventory;
+        try {
+            inventory = createInventory();
+            inventory.load();
+        } catch (Exception e) {
+            System.err.println("Error: cannot load inventory: " + e.getMessage());
+            return BatchRunner.EXIT_LOAD_FAILED;
+        }
+        return runner.run(inventory.current());
+    }
+
+    /**
+     * Loads the feeds, keeps them watched and answers HTTP queries until the process is stopped.
+     */
+    private static void serve(String[] args) throws Exception {
+        int port = parseIntArg(args, PORT_ARG, InventoryServer.DEFAULT_PORT, 65535);
+        InventoryReloader inventory = createInventory();
+        Metrics.registerMBeans(inventory::current);
+        inventory.load();
+        inventory.start();
+
+        InventoryServer server = new InventoryServer(new InetSocketAddress(port), inventory::current);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            inventory.close();
+        }));
+        PrintUtil.printSuccess("Serving the inventory on http://localhost:" + server.getPort() + "/cars");
+    }
+
+    /**
+     * Reads a whole-number argument given as {@code --name N} or {@code --name=N}.
+     *
+     * @return the value, or {@code defaultValue} when the argument is absent
+     * @throws IllegalArgumentException if the value is not a number between 0 and {@code max}
+     */
+    private static int parseIntArg(String[] args, String name, int defaultValue, int max) {
+        for (int i = 0; i < args.length; i++) {
+            String value = null;
+            if (args[i].equals(name) && i + 1 < args.length) {
+                value = args[i + 1];
+            } else if (args[i].startsWith(name + "=")) {
+                value = args[i].substring(name.length() + 1);
+            }
+            if (value != null) {
+                try {
+                    int parsed = Integer.parseInt(value.trim());
+                    if (parsed >= 0 && parsed <= max) return parsed;
+                } catch (NumberFormatException ignored) {
+                    // reported below
+                }
+                throw new IllegalArgumentException("Invalid " + name + " value: " + value);
+            }
+        }
+        return defaultValue;
+    }
+
     /**
      * Allows user to select the output view format.
      * Repeats until valid input is received.
      */
     private static void changeViewFormat(Scanner scanner) {
         while (true) {
-            PrintUtil.println("Select view format: Table | Json | Xml");
+            PrintUtil.println("Select view format: Table | Json | Xml | Ndjson | Csv | Binary");
             String input = scanner.nextLine().trim().toLowerCase();
 
             switch (input) {
@@ -79,7 +202,22 @@ public class Main {
                     PrintUtil.printSuccess("View format updated to XML");
                     return;
                 }
-                default -> PrintUtil.printError("Invalid input, valid inputs are: Table, Json, Xml");
+                case "ndjson" -> {
+                    outputFormat = OutputFormat.NDJSON;
+                    PrintUtil.printSuccess("View format updated to NDJSON");
+                    return;
+                }
+                case "csv" -> {
+                    outputFormat = OutputFormat.CSV;
+                    PrintUtil.printSuccess("View format updated to CSV");
+                    return;
+                }
+                case "binary" -> {
+                    outputFormat = OutputFormat.BINARY;
+                    PrintUtil.printSuccess("View format updated to binary");
+                    return;
+                }
+                default -> PrintUtil.printError("Invalid input, valid inputs are: Table, Json, Xml, Ndjson, Csv, Binary");
             }
         }
     }
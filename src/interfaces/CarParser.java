@@ -4,9 +4,11 @@ import src.models.Car;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface for parsing car data from given CSV and XML file paths.
+ * Implementations may offer several XML reading strategies, see {@link src.models.ParserMode}.
  */
 public interface CarParser {
 
@@ -19,4 +21,17 @@ public interface CarParser {
      * @throws Exception if any parsing error occurs
      */
     List<Car> build(Path csvPath, Path xmlPath) throws Exception;
+
+    /**
+     * Streams car data from the specified CSV and XML files.
+     * Each car is emitted as soon as its CSV row and XML element have both been read,
+     * so consumers can start before the files are fully parsed.
+     * The returned stream must be closed once consumed or abandoned.
+     *
+     * @param csvPath path to the CSV file containing car data
+     * @param xmlPath path to the XML file containing car data
+     * @return stream of parsed Car objects, in file order
+     * @throws Exception if the files cannot be opened
+     */
+    Stream<Car> stream(Path csvPath, Path xmlPath) throws Exception;
 }
@@ -0,0 +1,28 @@
+package src.metrics;
+
+/**
+ * JMX view of the published inventory and the query cache, registered as
+ * {@code carinventory:type=Inventory}.
+ */
+public interface InventoryMXBean {
+
+    /**
+     * Returns the published version, 0 before the first load.
+     */
+    long getVersion();
+
+    int getCarCount();
+
+    /**
+     * Returns the estimated heap size of the published version: cars, columns and indexes.
+     */
+    long getFootprintBytes();
+
+    long getQueryCacheHits();
+
+    long getQueryCacheMisses();
+
+    long getQueryCacheEvictions();
+
+    int getQueryCacheEntries();
+}
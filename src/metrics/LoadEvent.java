@@ -0,0 +1,39 @@
+package src.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event committed for every published inventory version.
+ */
+@Name("carinventory.Load")
+@Label("Inventory Load")
+@Category("Car Inventory")
+@Description("A full or incremental load of the feeds that published a new inventory version")
+@StackTrace(false)
+final class LoadEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(LoadEvent.class);
+
+    @Label("Inventory Version")
+    long inventoryVersion;
+
+    @Label("Incremental")
+    boolean incremental;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Records Parsed")
+    long recordsParsed;
+
+    @Label("Cars")
+    long cars;
+}
@@ -0,0 +1,170 @@
+package src.metrics;
+
+import src.models.InventoryVersion;
+import src.util.QueryCache;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide timings and row counts of the {@link Phase}s, also published over JMX and as
+ * Flight Recorder events.
+ * <p>
+ * Measured code reads {@link System#nanoTime()} when it starts and hands it to one of the
+ * {@code record} methods when it is done:
+ * <pre>
+ * long start = System.nanoTime();
+ * int[] rows = ...;
+ * Metrics.recordQuery(Phase.FILTER, start, version.getVersion(), rows.length);
+ * </pre>
+ * Recording never allocates; Flight Recorder events are only created while a recording has them enabled.
+ */
+public final class Metrics {
+
+    public static final String JMX_DOMAIN = "carinventory";
+
+    private static final PhaseStats[] PHASES = new PhaseStats[Phase.values().length];
+
+    static {
+        for (Phase phase : Phase.values()) {
+            PHASES[phase.ordinal()] = new PhaseStats(phase);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static PhaseStats stats(Phase phase) {
+        return PHASES[phase.ordinal()];
+    }
+
+    /**
+     * Records one run of a parsing, merging or rendering phase.
+     *
+     * @param startNanos   {@link System#nanoTime()} read when the phase started
+     * @param rowsScanned  records or rows read
+     * @param rowsReturned records or rows produced
+     */
+    public static void record(Phase phase, long startNanos, long rowsScanned, long rowsReturned) {
+        PHASES[phase.ordinal()].record(System.nanoTime() - startNanos, rowsScanned, rowsReturned);
+    }
+
+    /**
+     * Records one query and commits a {@code carinventory.Query} event. Rows scanned are counted
+     * separately with {@link #addRowsScanned}, where the query actually touches rows: answers
+     * served from the query cache scan none.
+     */
+    public static void recordQuery(Phase phase, long startNanos, long inventoryVersion, long rowsReturned) {
+        long elapsed = System.nanoTime() - startNanos;
+        PHASES[phase.ordinal()].record(elapsed, 0, rowsReturned);
+        if (QueryEvent.TYPE.isEnabled()) {
+            QueryEvent event = new QueryEvent();
+            event.operation = phase.label();
+            event.inventoryVersion = inventoryVersion;
+            event.latency = elapsed;
+            event.rowsReturned = rowsReturned;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a load that published a version and commits a {@code carinventory.Load} event.
+     *
+     * @param recordsParsed feed records parsed, fewer than the cars for an incremental load
+     */
+    public static void recordLoad(long startNanos, long inventoryVersion, int recordsParsed, int cars,
+                                  boolean incremental) {
+        long elapsed = System.nanoTime() - startNanos;
+        PHASES[Phase.LOAD.ordinal()].record(elapsed, recordsParsed, cars);
+        if (LoadEvent.TYPE.isEnabled()) {
+            LoadEvent event = new LoadEvent();
+            event.inventoryVersion = inventoryVersion;
+            event.incremental = incremental;
+            event.latency = elapsed;
+            event.recordsParsed = recordsParsed;
+            event.cars = cars;
+            event.commit();
+        }
+    }
+
+    public static void addRowsScanned(Phase phase, long rows) {
+        PHASES[phase.ordinal()].addRowsScanned(rows);
+    }
+
+    /**
+     * Registers the phase and inventory MXBeans with the platform MBean server, once per process;
+     * later calls only switch the inventory being reported.
+     *
+     * @param inventory supplies the published version, or null before the first load
+     * @throws JMException if the beans cannot be registered
+     */
+    public static synchronized void registerMBeans(Supplier<InventoryVersion> inventory) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName inventoryName = new ObjectName(JMX_DOMAIN, "type", "Inventory");
+        if (server.isRegistered(inventoryName)) {
+            server.unregisterMBean(inventoryName);
+        }
+        server.registerMBean(new InventoryStats(inventory), inventoryName);
+
+        for (PhaseStats stats : PHASES) {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Phase,name=" + stats.getName());
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        }
+    }
+
+    /**
+     * Reads the published version and the shared {@link QueryCache} on every attribute access.
+     */
+    private static final class InventoryStats implements InventoryMXBean {
+
+        private final Supplier<InventoryVersion> inventory;
+
+        InventoryStats(Supplier<InventoryVersion> inventory) {
+            this.inventory = Objects.requireNonNull(inventory, "inventory must not be null");
+        }
+
+        @Override
+        public long getVersion() {
+            InventoryVersion version = inventory.get();
+            return version != null ? version.getVersion() : 0;
+        }
+
+        @Override
+        public int getCarCount() {
+            InventoryVersion version = inventory.get();
+            return version != null ? version.getCars().size() : 0;
+        }
+
+        @Override
+        public long getFootprintBytes() {
+            InventoryVersion version = inventory.get();
+            return version != null ? version.footprintBytes() : 0;
+        }
+
+        @Override
+        public long getQueryCacheHits() {
+            return QueryCache.shared().hitCount();
+        }
+
+        @Override
+        public long getQueryCacheMisses() {
+            return QueryCache.shared().missCount();
+        }
+
+        @Override
+        public long getQueryCacheEvictions() {
+            return QueryCache.shared().evictionCount();
+        }
+
+        @Override
+        public int getQueryCacheEntries() {
+            return QueryCache.shared().size();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package src.metrics;
+
+/**
+ * Measured stages of loading and querying the inventory. Stages may nest: a load includes parsing
+ * both feeds, and the merge reads the CSV.
+ */
+public enum Phase {
+    XML_PARSE("xml-parse", false),
+    CSV_READ("csv-read", false),
+    /** Copying brand and release date from the CSV onto the parsed cars. */
+    MERGE("merge", false),
+    /** A full or incremental load, up to the published version with its indexes. */
+    LOAD("load", false),
+    FILTER("filter", true),
+    SORT("sort", true),
+    SORT_TYPE_CURRENCY("sort-type", true),
+    /** Brand and model autocomplete suggestions. */
+    COMPLETE("complete", true),
+    /** Writing cars in any output format, to the console, a file or an HTTP response. */
+    RENDER("render", false);
+
+    private final String label;
+    private final boolean query;
+
+    Phase(String label, boolean query) {
+        this.label = label;
+        this.query = query;
+    }
+
+    /**
+     * Returns the short name used in the stats view and JMX object names.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Tells whether every measurement of this phase answers one filter or sort query.
+     */
+    public boolean isQuery() {
+        return query;
+    }
+}
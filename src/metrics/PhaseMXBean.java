@@ -0,0 +1,33 @@
+package src.metrics;
+
+/**
+ * JMX view of one {@link Phase}, registered as {@code carinventory:type=Phase,name=<label>}.
+ * Percentiles are upper bounds of histogram buckets, at most 12.5% above the exact value.
+ */
+public interface PhaseMXBean {
+
+    String getName();
+
+    long getCount();
+
+    double getTotalMillis();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+
+    long getRowsScanned();
+
+    long getRowsReturned();
+
+    /**
+     * Clears all counters; measurements running concurrently may be partly lost.
+     */
+    void reset();
+}
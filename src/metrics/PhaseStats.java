@@ -0,0 +1,171 @@
+package src.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one {@link Phase}.
+ * <p>
+ * Recording only increments preallocated counters, so it never allocates and can stay on under
+ * load. Latencies go to a log-linear histogram: every power of two is split into
+ * {@value #SUB_BUCKETS} buckets, which bounds the error of a percentile to 1/{@value #SUB_BUCKETS}
+ * of its value whatever the range, from nanoseconds to hours.
+ */
+public final class PhaseStats implements PhaseMXBean {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final Phase phase;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    PhaseStats(Phase phase) {
+        this.phase = phase;
+    }
+
+    void record(long elapsedNanos, long scanned, long returned) {
+        long nanos = Math.max(elapsedNanos, 0);
+        count.increment();
+        totalNanos.add(nanos);
+        rowsScanned.add(scanned);
+        rowsReturned.add(returned);
+        histogram.incrementAndGet(bucket(nanos));
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // lost a race with another maximum, check again
+        }
+    }
+
+    void addRowsScanned(long rows) {
+        rowsScanned.add(rows);
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    @Override
+    public String getName() {
+        return phase.label();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return totalNanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e3 / n;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentileNanos(0.50) / 1e3;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return percentileNanos(0.90) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentileNanos(0.99) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1e3;
+    }
+
+    @Override
+    public long getRowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    @Override
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        totalNanos.reset();
+        rowsScanned.reset();
+        rowsReturned.reset();
+        maxNanos.set(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns the latency below which the given fraction of measurements fall, in nanoseconds.
+     */
+    public long percentileNanos(double fraction) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return phase.label() + ": " + getCount() + " in " + TimeUnit.NANOSECONDS.toMillis(getTotalNanos()) + " ms";
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (nanos >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long end = SUB_BUCKETS + bucket % SUB_BUCKETS + 1;
+        if (shift >= Long.numberOfLeadingZeros(end)) {
+            // end << shift would reach 2^63 and overflow
+            return Long.MAX_VALUE;
+        }
+        return (end << shift) - 1;
+    }
+}
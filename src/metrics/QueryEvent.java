@@ -0,0 +1,37 @@
+package src.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event committed for every filter or sort query.
+ */
+@Name("carinventory.Query")
+@Label("Inventory Query")
+@Category("Car Inventory")
+@Description("A filter or sort query answered from a loaded inventory version")
+@StackTrace(false)
+final class QueryEvent extends Event {
+
+    /** Checked before creating an event, so nothing is allocated while no recording asks for it. */
+    static final EventType TYPE = EventType.getEventType(QueryEvent.class);
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Inventory Version")
+    long inventoryVersion;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Rows Returned")
+    long rowsReturned;
+}
@@ -1,25 +1,57 @@
 package src.models;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 public class Car {
+
+    /**
+     * Epoch day stored for cars without a release date.
+     */
+    public static final int NO_RELEASE_DATE = Integer.MIN_VALUE;
+
     private String brand;
     private final String model;
     private final String type;
     private double defaultPrice;
     private String defaultCurrency;
-    private final Map<String, Double> pricesByCurrency;
-    private LocalDate releaseDate;
+    /** Prices indexed by {@link CurrencyRegistry} id, NaN where the car has no price. */
+    private final double[] prices;
+    private volatile Map<String, Double> pricesView;
+    private int releaseEpochDay = NO_RELEASE_DATE;
 
     public Car(String model, String type, double defaultPrice, Map<String, Double> pricesByCurrency) {
         this.model = Objects.requireNonNull(model, "model must not be null");
         this.type = Objects.requireNonNull(type, "type must not be null");
         this.defaultPrice = defaultPrice;
-        this.pricesByCurrency = pricesByCurrency != null ? new HashMap<>(pricesByCurrency) : new HashMap<>();
+        this.prices = toPriceArray(pricesByCurrency);
+    }
+
+    /**
+     * Creates a car from a price array indexed by {@link CurrencyRegistry} id (NaN meaning no price).
+     * The array is used as is and must not be modified afterwards.
+     */
+    Car(String model, String type, double defaultPrice, double[] prices) {
+        this.model = Objects.requireNonNull(model, "model must not be null");
+        this.type = Objects.requireNonNull(type, "type must not be null");
+        this.defaultPrice = defaultPrice;
+        this.prices = prices;
+    }
+
+    /**
+     * Returns a copy of this car with another default price and currency; this car is left untouched.
+     */
+    public Car withDefaultPrice(double defaultPrice, String defaultCurrency) {
+        Car copy = new Car(model, type, defaultPrice, prices);
+        copy.brand = brand;
+        copy.defaultCurrency = defaultCurrency;
+        copy.releaseEpochDay = releaseEpochDay;
+        copy.pricesView = pricesView;
+        return copy;
     }
 
     public String getBrand() {
@@ -54,19 +86,99 @@ public class Car {
         this.defaultPrice = defaultPrice;
     }
 
+    /**
+     * Returns the release date, built on demand from the stored epoch day, or null if unknown.
+     */
     public LocalDate getReleaseDate() {
-        return releaseDate;
+        return releaseEpochDay == NO_RELEASE_DATE ? null : LocalDate.ofEpochDay(releaseEpochDay);
     }
 
     public void setReleaseDate(LocalDate releaseDate) {
-        this.releaseDate = releaseDate;
+        this.releaseEpochDay = releaseDate == null ? NO_RELEASE_DATE : Math.toIntExact(releaseDate.toEpochDay());
+    }
+
+    public boolean hasReleaseDate() {
+        return releaseEpochDay != NO_RELEASE_DATE;
     }
 
     /**
-     * Returns an unmodifiable view of the pricesByCurrency map to prevent external modification.
+     * Returns the release date as an epoch day, or {@link #NO_RELEASE_DATE} if unknown.
+     */
+    public int getReleaseEpochDay() {
+        return releaseEpochDay;
+    }
+
+    public void setReleaseEpochDay(int releaseEpochDay) {
+        this.releaseEpochDay = releaseEpochDay;
+    }
+
+    /**
+     * Returns the price in the given currency, or NaN if the car has none.
+     *
+     * @param currencyId id from {@link CurrencyRegistry}
+     */
+    public double priceIn(int currencyId) {
+        return currencyId >= 0 && currencyId < prices.length ? prices[currencyId] : Double.NaN;
+    }
+
+    public boolean hasPrice(int currencyId) {
+        return !Double.isNaN(priceIn(currencyId));
+    }
+
+    /**
+     * Returns the number of currency slots to scan with {@link #priceIn(int)};
+     * ids at or above this value never have a price.
+     */
+    public int currencySlots() {
+        return prices.length;
+    }
+
+    /**
+     * Estimates the heap used by this car, its price array and its model and type strings;
+     * brand and currency strings are shared between cars and left out.
+     */
+    long footprintBytes() {
+        return HeapSize.object(6 * HeapSize.REFERENCE + 8 + 4) + HeapSize.of(prices)
+                + HeapSize.of(model) + HeapSize.of(type);
+    }
+
+    /**
+     * Returns an unmodifiable map view of the prices, built once on first use.
+     * Prefer {@link #priceIn(int)} on hot paths.
      */
     public Map<String, Double> getPricesByCurrency() {
-        return Collections.unmodifiableMap(pricesByCurrency);
+        Map<String, Double> view = pricesView;
+        if (view == null) {
+            Map<String, Double> map = new HashMap<>();
+            for (int id = 0; id < prices.length; id++) {
+                if (!Double.isNaN(prices[id])) {
+                    map.put(CurrencyRegistry.code(id), prices[id]);
+                }
+            }
+            pricesView = view = Collections.unmodifiableMap(map);
+        }
+        return view;
+    }
+
+    /**
+     * NaN prices are treated as missing, as they cannot match any price filter.
+     */
+    private static double[] toPriceArray(Map<String, Double> pricesByCurrency) {
+        if (pricesByCurrency == null || pricesByCurrency.isEmpty()) {
+            return new double[0];
+        }
+        double[] prices = new double[0];
+        for (Map.Entry<String, Double> entry : pricesByCurrency.entrySet()) {
+            int id = CurrencyRegistry.idOf(entry.getKey());
+            if (id == CurrencyRegistry.NONE || entry.getValue() == null) continue;
+            if (id >= prices.length) {
+                int length = prices.length;
+                prices = Arrays.copyOf(prices, id + 1);
+                Arrays.fill(prices, length, prices.length, Double.NaN);
+            }
+            prices[id] = entry.getValue();
+        }
+        return prices;
     }
 
 }
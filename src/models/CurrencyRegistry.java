@@ -0,0 +1,66 @@
+package src.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global registry assigning a small, stable int id to every currency code.
+ * Ids are dense and start at 0, so per-car and per-column price arrays can be indexed by them.
+ */
+public final class CurrencyRegistry {
+
+    /** Id returned for unknown or null currency codes. */
+    public static final int NONE = -1;
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] codes = new String[0];
+
+    private CurrencyRegistry() {
+    }
+
+    /**
+     * Returns the id of a currency code, registering it if needed.
+     *
+     * @param code currency code, compared case-sensitively
+     * @return the id, or {@link #NONE} for null
+     */
+    public static int idOf(String code) {
+        if (code == null) return NONE;
+        Integer id = ids.get(code);
+        return id != null ? id : register(code);
+    }
+
+    /**
+     * Returns the id of an already registered currency code, or {@link #NONE}.
+     */
+    public static int find(String code) {
+        if (code == null) return NONE;
+        Integer id = ids.get(code);
+        return id != null ? id : NONE;
+    }
+
+    /**
+     * Returns the currency code of an id, or null for {@link #NONE}.
+     */
+    public static String code(int id) {
+        return id == NONE ? null : codes[id];
+    }
+
+    /**
+     * Returns the number of registered currencies; valid ids are below this value.
+     */
+    public static int count() {
+        return codes.length;
+    }
+
+    private static synchronized int register(String code) {
+        Integer id = ids.get(code);
+        if (id != null) return id;
+        String[] updated = Arrays.copyOf(codes, codes.length + 1);
+        updated[codes.length] = code;
+        codes = updated;
+        ids.put(code, codes.length - 1);
+        return codes.length - 1;
+    }
+}
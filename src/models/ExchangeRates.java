@@ -0,0 +1,127 @@
+package src.models;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Immutable exchange-rate table: how many units of each currency one unit of the base currency buys.
+ * <p>
+ * Rates are read from a properties file naming the base currency and one rate per currency code:
+ * <pre>
+ * base=USD
+ * EUR=0.92
+ * JPY=112
+ * </pre>
+ * The base currency always has rate 1. Currency codes are case-insensitive and stored upper-case.
+ */
+public final class ExchangeRates {
+
+    /** Table without any rates: prices can only be compared in the currency they are quoted in. */
+    public static final ExchangeRates NONE = new ExchangeRates(null, Map.of());
+
+    private static final String BASE_KEY = "base";
+
+    private final String baseCurrency;
+    private final Map<String, Double> rates;
+
+    private ExchangeRates(String baseCurrency, Map<String, Double> rates) {
+        this.baseCurrency = baseCurrency;
+        this.rates = rates;
+    }
+
+    /**
+     * @param baseCurrency currency the rates are relative to
+     * @param rates        units of each currency per unit of the base currency, all finite and positive
+     * @throws IllegalArgumentException on a missing base or an invalid rate
+     */
+    public static ExchangeRates of(String baseCurrency, Map<String, Double> rates) {
+        Objects.requireNonNull(baseCurrency, "baseCurrency must not be null");
+        String base = normalize(baseCurrency);
+        Map<String, Double> normalized = new HashMap<>();
+        rates.forEach((code, rate) -> {
+            if (rate == null || !(rate > 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Invalid exchange rate for " + code + ": " + rate);
+            }
+            normalized.put(normalize(code), rate);
+        });
+        Double baseRate = normalized.put(base, 1.0);
+        if (baseRate != null && baseRate != 1.0) {
+            throw new IllegalArgumentException("Rate of the base currency " + base + " must be 1, was " + baseRate);
+        }
+        return new ExchangeRates(base, Collections.unmodifiableMap(normalized));
+    }
+
+    /**
+     * Reads a rates file, see the class description.
+     *
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the base is missing or a rate is not a positive number
+     */
+    public static ExchangeRates load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String base = properties.getProperty(BASE_KEY);
+        if (base == null || base.isBlank()) {
+            throw new IllegalArgumentException("Missing '" + BASE_KEY + "' currency in " + path);
+        }
+        Map<String, Double> rates = new HashMap<>();
+        for (String code : properties.stringPropertyNames()) {
+            if (code.equals(BASE_KEY)) continue;
+            String value = properties.getProperty(code).trim();
+            try {
+                rates.put(code.trim(), Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid exchange rate for " + code + " in " + path + ": " + value);
+            }
+        }
+        return of(base.trim(), rates);
+    }
+
+    /**
+     * Returns the base currency, or null for {@link #NONE}.
+     */
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    public boolean isEmpty() {
+        return baseCurrency == null;
+    }
+
+    /**
+     * Returns the units of a currency per unit of the base currency, or NaN if the currency has no rate.
+     */
+    public double rate(String currency) {
+        Double rate = currency != null ? rates.get(normalize(currency)) : null;
+        return rate != null ? rate : Double.NaN;
+    }
+
+    public boolean hasRate(String currency) {
+        return !Double.isNaN(rate(currency));
+    }
+
+    /**
+     * Converts an amount between two currencies; NaN if either has no rate.
+     */
+    public double convert(double amount, String from, String to) {
+        return amount / rate(from) * rate(to);
+    }
+
+    /**
+     * Returns the upper-case form used for currency codes.
+     */
+    public static String normalize(String currency) {
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+}
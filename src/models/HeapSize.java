@@ -0,0 +1,51 @@
+package src.models;
+
+/**
+ * Shallow heap sizes for footprint estimates, assuming a 64-bit JVM with compressed references
+ * and compact (Latin-1) strings.
+ */
+final class HeapSize {
+
+    static final long OBJECT_HEADER = 12;
+    static final long REFERENCE = 4;
+    private static final long ARRAY_HEADER = 16;
+    /** String object plus its byte array header. */
+    private static final long STRING_OVERHEAD = 24 + ARRAY_HEADER;
+    /** HashMap node plus its share of the table. */
+    private static final long MAP_ENTRY = 32 + REFERENCE * 2;
+
+    private HeapSize() {
+    }
+
+    static long object(long fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    static long of(int[] array) {
+        return array != null ? align(ARRAY_HEADER + 4L * array.length) : 0;
+    }
+
+    static long of(double[] array) {
+        return array != null ? align(ARRAY_HEADER + 8L * array.length) : 0;
+    }
+
+    static long of(long[] array) {
+        return array != null ? align(ARRAY_HEADER + 8L * array.length) : 0;
+    }
+
+    static long of(String value) {
+        return value != null ? align(STRING_OVERHEAD + value.length()) : 0;
+    }
+
+    static long references(int count) {
+        return align(ARRAY_HEADER + REFERENCE * count);
+    }
+
+    static long mapEntries(int count) {
+        return MAP_ENTRY * count;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,381 @@
+package src.models;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Columnar (struct-of-arrays) store of the inventory.
+ * Brands, models and types are dictionary-encoded into {@code int} ids, release dates are kept as
+ * epoch days and every currency has its own {@code double} price column, indexed by
+ * {@link CurrencyRegistry} id, with a presence bitmap. Scans, filters and sorts run directly on
+ * these primitive columns; {@link Car} objects are only created, as detached views, for the rows
+ * that are actually rendered.
+ * <p>
+ * When built with {@link ExchangeRates}, a {@link PriceConverter} also keeps every row's price in
+ * the base currency, and "price" sorts compare those instead of default prices in mixed currencies.
+ */
+public final class Inventory {
+
+    /** Id stored for a missing brand or default currency. */
+    public static final int NONE = -1;
+
+    private final int size;
+    private final Dictionary brands;
+    private final Dictionary models;
+    private final Dictionary types;
+
+    final int[] brandIds;
+    final int[] modelIds;
+    final int[] typeIds;
+    final int[] releaseEpochDays;
+    final double[] defaultPrices;
+    final int[] defaultCurrencyIds;
+    /** Price columns indexed by currency id, then by row. */
+    final double[][] prices;
+    /** Presence bitmaps matching {@link #prices}, one bit per row. */
+    final long[][] pricePresence;
+    /** Position of each brand id in case-insensitive order, equal brands sharing a rank. */
+    private final int[] brandRanks;
+    private final PriceConverter converter;
+    /** Base-currency prices when there are rates, default prices otherwise. */
+    private final double[] sortPrices;
+
+    private Inventory(List<Car> cars, ExchangeRates rates) {
+        size = cars.size();
+        brands = new Dictionary();
+        models = new Dictionary();
+        types = new Dictionary();
+        brandIds = new int[size];
+        modelIds = new int[size];
+        typeIds = new int[size];
+        releaseEpochDays = new int[size];
+        defaultPrices = new double[size];
+        defaultCurrencyIds = new int[size];
+
+        int currencyCount = CurrencyRegistry.count();
+        prices = new double[currencyCount][];
+        pricePresence = new long[currencyCount][];
+        for (int row = 0; row < size; row++) {
+            Car car = cars.get(row);
+            brandIds[row] = brands.idOf(car.getBrand());
+            modelIds[row] = models.idOf(car.getModel());
+            typeIds[row] = types.idOf(car.getType());
+            releaseEpochDays[row] = car.getReleaseEpochDay();
+            defaultPrices[row] = car.getDefaultPrice();
+            defaultCurrencyIds[row] = CurrencyRegistry.idOf(car.getDefaultCurrency());
+            int slots = Math.min(car.currencySlots(), currencyCount);
+            for (int currency = 0; currency < slots; currency++) {
+                double price = car.priceIn(currency);
+                if (Double.isNaN(price)) continue;
+                if (prices[currency] == null) {
+                    prices[currency] = new double[size];
+                    pricePresence[currency] = new long[(size + 63) >>> 6];
+                }
+                prices[currency][row] = price;
+                pricePresence[currency][row >>> 6] |= 1L << row;
+            }
+        }
+        brandRanks = caseInsensitiveRanks(brands);
+        converter = new PriceConverter(this, rates);
+        sortPrices = converter.basePrices() != null ? converter.basePrices() : defaultPrices;
+    }
+
+    /**
+     * Builds the columnar store from a list of cars, preserving their order as row ids.
+     */
+    public static Inventory of(List<Car> cars) {
+        return of(cars, ExchangeRates.NONE);
+    }
+
+    /**
+     * Builds the columnar store with a base-currency price column computed from the given rates.
+     */
+    public static Inventory of(List<Car> cars, ExchangeRates rates) {
+        return new Inventory(cars, rates);
+    }
+
+    /**
+     * Returns the prices of the rows in any currency, quoted or converted.
+     */
+    public PriceConverter converter() {
+        return converter;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Visits every row id in order.
+     */
+    public void scan(IntConsumer action) {
+        for (int row = 0; row < size; row++) {
+            action.accept(row);
+        }
+    }
+
+    /**
+     * Returns the ids of the rows matching all given criteria, in row order.
+     * Same semantics as {@code FilterUtil.filter}: brand is case-insensitive, maxPrice matches
+     * if any currency price is lower or equal, null criteria are ignored.
+     */
+    public int[] filter(String brand, Double maxPrice, LocalDate releaseDate) {
+        int epochDay = releaseDate != null ? Math.toIntExact(releaseDate.toEpochDay()) : Car.NO_RELEASE_DATE;
+        return ScanEngine.filter(this, brand, maxPrice, epochDay, epochDay);
+    }
+
+    /**
+     * Returns all row ids in order.
+     */
+    public int[] allRows() {
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[row] = row;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the given rows stably sorted by price, date or brand (the default), like {@code SortUtil.sort}.
+     * With exchange rates, prices are compared in the base currency. The sort keys are extracted into
+     * a primitive array and ordered by {@link RadixSort}.
+     *
+     * @param descending reverses the order while keeping equal rows in their original order
+     */
+    public int[] sort(int[] rows, String sortField, boolean descending) {
+        long[] keys = new long[rows.length];
+        switch (sortField.toLowerCase()) {
+            case "price" -> {
+                for (int i = 0; i < rows.length; i++) keys[i] = RadixSort.priceKey(sortPrices[rows[i]]);
+            }
+            case "date" -> {
+                for (int i = 0; i < rows.length; i++) keys[i] = RadixSort.intKey(dateKey(rows[i]));
+            }
+            default -> {
+                for (int i = 0; i < rows.length; i++) keys[i] = RadixSort.intKey(brandKey(rows[i]));
+            }
+        }
+        if (descending) {
+            for (int i = 0; i < keys.length; i++) keys[i] = RadixSort.descending(keys[i]);
+        }
+        return RadixSort.sort(keys, rows);
+    }
+
+    /**
+     * Returns the ascending order of rows on price, date or brand (the default).
+     */
+    RowComparator comparator(String sortField) {
+        return switch (sortField.toLowerCase()) {
+            case "price" -> (a, b) -> Double.compare(sortPrices[a], sortPrices[b]);
+            case "date" -> (a, b) -> Integer.compare(dateKey(a), dateKey(b));
+            default -> (a, b) -> Integer.compare(brandKey(a), brandKey(b));
+        };
+    }
+
+    /**
+     * Creates a detached car view of one row.
+     */
+    public Car car(int row) {
+        double[] carPrices = new double[prices.length];
+        for (int currency = 0; currency < prices.length; currency++) {
+            carPrices[currency] = hasPrice(currency, row) ? prices[currency][row] : Double.NaN;
+        }
+        Car car = new Car(models.value(modelIds[row]), types.value(typeIds[row]), defaultPrices[row], carPrices);
+        car.setBrand(brands.value(brandIds[row]));
+        car.setDefaultCurrency(CurrencyRegistry.code(defaultCurrencyIds[row]));
+        car.setReleaseEpochDay(releaseEpochDays[row]);
+        return car;
+    }
+
+    /**
+     * Creates car views for the given rows, in the given order.
+     */
+    public List<Car> cars(int[] rows) {
+        List<Car> cars = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            cars.add(car(row));
+        }
+        return cars;
+    }
+
+    public int typeId(int row) {
+        return typeIds[row];
+    }
+
+    public String type(int typeId) {
+        return types.value(typeId);
+    }
+
+    public int typeCount() {
+        return types.size();
+    }
+
+    public int defaultCurrencyId(int row) {
+        return defaultCurrencyIds[row];
+    }
+
+    public int brandId(int row) {
+        return brandIds[row];
+    }
+
+    public int releaseEpochDay(int row) {
+        return releaseEpochDays[row];
+    }
+
+    public double defaultPrice(int row) {
+        return defaultPrices[row];
+    }
+
+    /**
+     * @param currencyId id from {@link CurrencyRegistry}
+     */
+    public boolean hasPrice(int currencyId, int row) {
+        return currencyId >= 0 && currencyId < pricePresence.length && pricePresence[currencyId] != null
+                && (pricePresence[currencyId][row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Returns the price of a row in the given currency; only meaningful if {@link #hasPrice} is true.
+     */
+    public double price(int currencyId, int row) {
+        return prices[currencyId][row];
+    }
+
+    /**
+     * Returns the number of currency columns; ids at or above this value have no prices.
+     */
+    public int currencyCount() {
+        return prices.length;
+    }
+
+    public String brand(int brandId) {
+        return brands.value(brandId);
+    }
+
+    public int brandCount() {
+        return brands.size();
+    }
+
+    public String model(int modelId) {
+        return models.value(modelId);
+    }
+
+    public int modelCount() {
+        return models.size();
+    }
+
+    /**
+     * Estimates the heap used by the columns and dictionaries.
+     */
+    long footprintBytes() {
+        long bytes = HeapSize.of(brandIds) + HeapSize.of(modelIds) + HeapSize.of(typeIds)
+                + HeapSize.of(releaseEpochDays) + HeapSize.of(defaultPrices) + HeapSize.of(defaultCurrencyIds)
+                + HeapSize.of(brandRanks) + HeapSize.references(prices.length) * 2;
+        for (int currency = 0; currency < prices.length; currency++) {
+            bytes += HeapSize.of(prices[currency]) + HeapSize.of(pricePresence[currency]);
+        }
+        return bytes + brands.footprintBytes() + models.footprintBytes() + types.footprintBytes()
+                + converter.footprintBytes();
+    }
+
+    /**
+     * Returns, per brand id, whether the brand equals the given one ignoring case.
+     */
+    boolean[] brandMatches(String brand) {
+        return brands.matchIgnoreCase(brand);
+    }
+
+    boolean anyPriceAtMost(int row, double max) {
+        for (int currency = 0; currency < prices.length; currency++) {
+            if (prices[currency] != null && hasPrice(currency, row) && prices[currency][row] <= max) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int dateKey(int row) {
+        int epochDay = releaseEpochDays[row];
+        return epochDay == Car.NO_RELEASE_DATE ? Integer.MAX_VALUE : epochDay;
+    }
+
+    private int brandKey(int row) {
+        int brand = brandIds[row];
+        return brand == NONE ? Integer.MAX_VALUE : brandRanks[brand];
+    }
+
+    private static int[] caseInsensitiveRanks(Dictionary dictionary) {
+        Integer[] order = new Integer[dictionary.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(dictionary.value(a), dictionary.value(b)));
+        int[] ranks = new int[order.length];
+        for (int i = 0, rank = 0; i < order.length; i++) {
+            if (i > 0 && String.CASE_INSENSITIVE_ORDER.compare(dictionary.value(order[i - 1]), dictionary.value(order[i])) != 0) {
+                rank = i;
+            }
+            ranks[order[i]] = rank;
+        }
+        return ranks;
+    }
+
+    @FunctionalInterface
+    interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Bidirectional String to id mapping; null is encoded as {@link #NONE}.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int idOf(String value) {
+            if (value == null) return NONE;
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        int find(String value) {
+            Integer id = value != null ? ids.get(value) : null;
+            return id != null ? id : NONE;
+        }
+
+        String value(int id) {
+            return id == NONE ? null : values.get(id);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        long footprintBytes() {
+            long bytes = HeapSize.mapEntries(values.size()) + HeapSize.references(values.size());
+            for (String value : values) {
+                bytes += HeapSize.of(value);
+            }
+            return bytes;
+        }
+
+        boolean[] matchIgnoreCase(String value) {
+            boolean[] matches = new boolean[values.size()];
+            for (int id = 0; id < matches.length; id++) {
+                matches[id] = values.get(id).equalsIgnoreCase(value);
+            }
+            return matches;
+        }
+    }
+}
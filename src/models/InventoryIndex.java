@@ -0,0 +1,369 @@
+package src.models;
+
+import src.metrics.Metrics;
+import src.metrics.Phase;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Secondary indexes over an {@link Inventory}, built once per loaded version:
+ * <ul>
+ *     <li>case-folded brand to row ids,</li>
+ *     <li>rows sorted by release epoch day, for exact and range date lookups,</li>
+ *     <li>per currency, rows sorted by price, for "price &lt;= X" lookups.</li>
+ * </ul>
+ * {@link #filter} drives the query from the most selective index and checks the remaining
+ * predicates on the inventory columns, so a query costs O(log n + k log k) for k candidates.
+ * Queries that no index narrows down enough fall back to a parallel {@link ScanEngine} pass.
+ */
+public final class InventoryIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+    /** Below one candidate in this many rows an index lookup beats a full {@link ScanEngine} pass. */
+    private static final int SCAN_RATIO = 8;
+
+    private final Inventory inventory;
+    private final Map<String, int[]> rowsByBrand;
+    private final int[] rowsByDate;
+    private final int[] sortedDates;
+    /** Per currency id: rows having a price, sorted by price; null when nobody is priced in it. */
+    private final int[][] rowsByPrice;
+    private final double[][] sortedPrices;
+
+    private InventoryIndex(Inventory inventory) {
+        this.inventory = inventory;
+        this.rowsByBrand = buildBrandIndex(inventory);
+
+        int size = inventory.size();
+        int dated = 0;
+        for (int row = 0; row < size; row++) {
+            if (inventory.releaseEpochDays[row] != Car.NO_RELEASE_DATE) dated++;
+        }
+        long[] dateKeys = new long[dated];
+        for (int row = 0, i = 0; row < size; row++) {
+            int epochDay = inventory.releaseEpochDays[row];
+            if (epochDay != Car.NO_RELEASE_DATE) {
+                dateKeys[i++] = ((long) epochDay << 32) | row;
+            }
+        }
+        Arrays.sort(dateKeys);
+        rowsByDate = new int[dated];
+        sortedDates = new int[dated];
+        for (int i = 0; i < dated; i++) {
+            sortedDates[i] = (int) (dateKeys[i] >> 32);
+            rowsByDate[i] = (int) dateKeys[i];
+        }
+
+        int currencies = inventory.currencyCount();
+        rowsByPrice = new int[currencies][];
+        sortedPrices = new double[currencies][];
+        for (int currency = 0; currency < currencies; currency++) {
+            if (inventory.prices[currency] != null) {
+                buildPriceIndex(currency);
+            }
+        }
+    }
+
+    /**
+     * Builds all indexes of the given inventory.
+     */
+    public static InventoryIndex of(Inventory inventory) {
+        return new InventoryIndex(inventory);
+    }
+
+    /**
+     * Returns the rows of a brand, compared case-insensitively, in row order.
+     */
+    public int[] brandRows(String brand) {
+        int[] rows = rowsByBrand.get(fold(brand));
+        return rows != null ? rows : NO_ROWS;
+    }
+
+    /**
+     * Returns the rows released between two epoch days (both inclusive), in date order.
+     */
+    public int[] dateRangeRows(int fromEpochDay, int toEpochDay) {
+        int from = lowerBound(sortedDates, fromEpochDay);
+        int to = upperBound(sortedDates, toEpochDay);
+        return from < to ? Arrays.copyOfRange(rowsByDate, from, to) : NO_ROWS;
+    }
+
+    /**
+     * Returns the number of rows released between two epoch days (both inclusive).
+     */
+    public int countDateRange(int fromEpochDay, int toEpochDay) {
+        return Math.max(0, upperBound(sortedDates, toEpochDay) - lowerBound(sortedDates, fromEpochDay));
+    }
+
+    /**
+     * Returns the number of rows priced at most {@code maxPrice} in the given currency.
+     */
+    public int countPriceAtMost(int currencyId, double maxPrice) {
+        if (currencyId < 0 || currencyId >= sortedPrices.length || sortedPrices[currencyId] == null) return 0;
+        return upperBound(sortedPrices[currencyId], maxPrice);
+    }
+
+    /**
+     * Returns the rows priced at most {@code maxPrice} in the given currency, cheapest first.
+     */
+    public int[] priceAtMostRows(int currencyId, double maxPrice) {
+        int count = countPriceAtMost(currencyId, maxPrice);
+        return count > 0 ? Arrays.copyOf(rowsByPrice[currencyId], count) : NO_ROWS;
+    }
+
+    /**
+     * Returns the rows matching all given criteria in row order, like {@link Inventory#filter}
+     * but with an optional release date range instead of an exact date.
+     *
+     * @param brand           case-insensitive brand, or null
+     * @param maxPrice        matches if any currency price is lower or equal, or null
+     * @param fromEpochDay    first release epoch day, or {@link Car#NO_RELEASE_DATE} for no lower bound
+     * @param toEpochDay      last release epoch day, or {@link Car#NO_RELEASE_DATE} for no upper bound
+     */
+    public int[] filter(String brand, Double maxPrice, int fromEpochDay, int toEpochDay) {
+        return filter(brand, maxPrice, null, fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Variant of {@link #filter(String, Double, int, int)} with a price limit in one currency: rows match
+     * when their price in {@code priceColumn}, typically a {@link PriceConverter#column}, is lower or equal.
+     * Such a limit is checked on the candidates or in a full scan, never used to drive the lookup.
+     *
+     * @param priceColumn price of every row in the limit's currency, NaN for none; null compares
+     *                    {@code maxPrice} to every currency price instead
+     */
+    public int[] filter(String brand, Double maxPrice, double[] priceColumn, int fromEpochDay, int toEpochDay) {
+        return filter(brand, maxPrice, priceColumn, null, fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Variant of {@link #filter(String, Double, double[], int, int)} restricted to some rows, typically
+     * a {@link SearchIndex#rows} result. They drive the lookup when they are the fewest candidates,
+     * otherwise the candidates of another index are looked up in them.
+     *
+     * @param withinRows rows the result is taken from, in row order; null for all rows
+     */
+    public int[] filter(String brand, Double maxPrice, double[] priceColumn, int[] withinRows,
+                        int fromEpochDay, int toEpochDay) {
+        boolean byDate = fromEpochDay != Car.NO_RELEASE_DATE || toEpochDay != Car.NO_RELEASE_DATE;
+        int from = fromEpochDay != Car.NO_RELEASE_DATE ? fromEpochDay : Integer.MIN_VALUE + 1;
+        int to = toEpochDay != Car.NO_RELEASE_DATE ? toEpochDay : Integer.MAX_VALUE;
+
+        int brandCount = brand != null ? brandRows(brand).length : Integer.MAX_VALUE;
+        int dateCount = byDate ? countDateRange(from, to) : Integer.MAX_VALUE;
+        long priceCount = Long.MAX_VALUE;
+        if (maxPrice != null && priceColumn == null) {
+            priceCount = 0;
+            for (int currency = 0; currency < sortedPrices.length; currency++) {
+                priceCount += countPriceAtMost(currency, maxPrice);
+            }
+        }
+
+        int withinCount = withinRows != null ? withinRows.length : Integer.MAX_VALUE;
+
+        if (brand == null && !byDate && maxPrice == null) {
+            return withinRows != null ? withinRows : inventory.allRows();
+        }
+        if (withinRows == null && Math.min(brandCount, Math.min(dateCount, priceCount)) > inventory.size() / SCAN_RATIO) {
+            Metrics.addRowsScanned(Phase.FILTER, inventory.size());
+            return ScanEngine.filter(inventory, brand, maxPrice, priceColumn, fromEpochDay, toEpochDay);
+        }
+
+        int[] candidates;
+        boolean sorted;
+        boolean checkWithin = withinRows != null;
+        if (withinCount <= brandCount && withinCount <= dateCount && withinCount <= priceCount) {
+            candidates = withinRows;
+            sorted = true;
+            checkWithin = false;
+        } else if (brandCount <= dateCount && brandCount <= priceCount) {
+            candidates = brandRows(brand);
+            sorted = true;
+        } else if (dateCount <= priceCount) {
+            candidates = dateRangeRows(from, to);
+            sorted = false;
+        } else {
+            candidates = priceAtMostRows(maxPrice);
+            sorted = true;
+        }
+
+        Metrics.addRowsScanned(Phase.FILTER, candidates.length);
+
+        boolean[] brandMatches = brand != null ? inventory.brandMatches(brand) : null;
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int row : candidates) {
+            if (brandMatches != null) {
+                int brandId = inventory.brandIds[row];
+                if (brandId == Inventory.NONE || !brandMatches[brandId]) continue;
+            }
+            if (byDate) {
+                int epochDay = inventory.releaseEpochDays[row];
+                if (epochDay == Car.NO_RELEASE_DATE || epochDay < from || epochDay > to) continue;
+            }
+            if (maxPrice != null && (priceColumn != null
+                    ? !(priceColumn[row] <= maxPrice) : !inventory.anyPriceAtMost(row, maxPrice))) continue;
+            if (checkWithin && Arrays.binarySearch(withinRows, row) < 0) continue;
+            result[count++] = row;
+        }
+        result = Arrays.copyOf(result, count);
+        if (!sorted) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the heap used by the indexes, not counting the inventory they point into.
+     */
+    long footprintBytes() {
+        long bytes = HeapSize.mapEntries(rowsByBrand.size()) + HeapSize.of(rowsByDate) + HeapSize.of(sortedDates)
+                + HeapSize.references(rowsByPrice.length) * 2;
+        for (Map.Entry<String, int[]> entry : rowsByBrand.entrySet()) {
+            bytes += HeapSize.of(entry.getKey()) + HeapSize.of(entry.getValue());
+        }
+        for (int currency = 0; currency < rowsByPrice.length; currency++) {
+            bytes += HeapSize.of(rowsByPrice[currency]) + HeapSize.of(sortedPrices[currency]);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the distinct rows priced at most {@code maxPrice} in any currency, in row order.
+     */
+    private int[] priceAtMostRows(double maxPrice) {
+        int total = 0;
+        for (int currency = 0; currency < sortedPrices.length; currency++) {
+            total += countPriceAtMost(currency, maxPrice);
+        }
+        int[] rows = new int[total];
+        int size = 0;
+        for (int currency = 0; currency < sortedPrices.length; currency++) {
+            int count = countPriceAtMost(currency, maxPrice);
+            if (count > 0) {
+                System.arraycopy(rowsByPrice[currency], 0, rows, size, count);
+                size += count;
+            }
+        }
+        Arrays.sort(rows);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || rows[distinct - 1] != rows[i]) {
+                rows[distinct++] = rows[i];
+            }
+        }
+        return Arrays.copyOf(rows, distinct);
+    }
+
+    private void buildPriceIndex(int currency) {
+        int size = inventory.size();
+        double[] column = inventory.prices[currency];
+        double[] values = new double[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (inventory.hasPrice(currency, row)) values[count++] = column[row];
+        }
+        values = Arrays.copyOf(values, count);
+        Arrays.sort(values);
+
+        // place each row at the first slot of its price, equal prices filling up in row order
+        int[] rows = new int[count];
+        int[] taken = new int[count];
+        for (int row = 0; row < size; row++) {
+            if (!inventory.hasPrice(currency, row)) continue;
+            int first = lowerBound(values, column[row]);
+            rows[first + taken[first]++] = row;
+        }
+        rowsByPrice[currency] = rows;
+        sortedPrices[currency] = values;
+    }
+
+    private static Map<String, int[]> buildBrandIndex(Inventory inventory) {
+        // brands differing only by case share one posting list
+        int brandCount = inventory.brandCount();
+        Map<String, Integer> groupsByKey = new HashMap<>();
+        int[] groups = new int[brandCount];
+        for (int brandId = 0; brandId < brandCount; brandId++) {
+            groups[brandId] = groupsByKey.computeIfAbsent(fold(inventory.brand(brandId)), key -> groupsByKey.size());
+        }
+
+        int[] sizes = new int[groupsByKey.size()];
+        for (int row = 0; row < inventory.size(); row++) {
+            int brandId = inventory.brandIds[row];
+            if (brandId != Inventory.NONE) sizes[groups[brandId]]++;
+        }
+        int[][] postings = new int[sizes.length][];
+        for (int group = 0; group < sizes.length; group++) {
+            postings[group] = new int[sizes[group]];
+        }
+        int[] filled = new int[sizes.length];
+        for (int row = 0; row < inventory.size(); row++) {
+            int brandId = inventory.brandIds[row];
+            if (brandId == Inventory.NONE) continue;
+            int group = groups[brandId];
+            postings[group][filled[group]++] = row;
+        }
+
+        Map<String, int[]> index = new HashMap<>(groupsByKey.size() * 2);
+        groupsByKey.forEach((key, group) -> index.put(key, postings[group]));
+        return index;
+    }
+
+    /**
+     * Folds a string so that two strings are equal after folding iff they are {@code equalsIgnoreCase}.
+     */
+    public static String fold(String s) {
+        if (s == null) return null;
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int upperBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int lowerBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(values[mid], key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
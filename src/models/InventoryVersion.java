@@ -0,0 +1,97 @@
+package src.models;
+
+import java.util.List;
+
+/**
+ * Immutable, versioned view of the loaded inventory.
+ * A new instance is published for every (re)load, so readers holding one never see a partially loaded list.
+ */
+public final class InventoryVersion {
+
+    private final long version;
+    private final List<Car> cars;
+    private final Inventory inventory;
+    private final InventoryIndex index;
+    private final SortIndex sortIndex;
+    private final SearchIndex searchIndex;
+    private volatile long footprintBytes = -1;
+
+    public InventoryVersion(long version, List<Car> cars) {
+        this(version, cars, ExchangeRates.NONE);
+    }
+
+    /**
+     * @param rates converts prices for cross-currency filters and sorts, see {@link Inventory#converter()}
+     */
+    public InventoryVersion(long version, List<Car> cars, ExchangeRates rates) {
+        this.version = version;
+        this.cars = List.copyOf(cars);
+        this.inventory = Inventory.of(this.cars, rates);
+        this.index = InventoryIndex.of(inventory);
+        this.sortIndex = SortIndex.of(inventory);
+        this.searchIndex = SearchIndex.of(inventory);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the cars of this version as an unmodifiable list.
+     */
+    public List<Car> getCars() {
+        return cars;
+    }
+
+    /**
+     * Returns the exchange rates this version converts prices with.
+     */
+    public ExchangeRates getExchangeRates() {
+        return inventory.converter().rates();
+    }
+
+    /**
+     * Returns the columnar store built from the cars of this version; row ids follow list order.
+     */
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Returns the secondary indexes over {@link #getInventory()}, built together with it.
+     */
+    public InventoryIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the precomputed price, date and brand orders of {@link #getInventory()}.
+     */
+    public SortIndex getSortIndex() {
+        return sortIndex;
+    }
+
+    /**
+     * Returns the brand and model text search of {@link #getInventory()}.
+     */
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Returns the estimated heap size of this version: the cars, the columnar store and all indexes.
+     * Computed on first use.
+     */
+    public long footprintBytes() {
+        long bytes = footprintBytes;
+        if (bytes < 0) {
+            bytes = HeapSize.references(cars.size()) + inventory.footprintBytes()
+                    + index.footprintBytes() + sortIndex.footprintBytes() + searchIndex.footprintBytes();
+            for (Car car : cars) {
+                bytes += car.footprintBytes();
+            }
+            footprintBytes = bytes;
+        }
+        return bytes;
+    }
+}
@@ -6,5 +6,10 @@ package src.models;
 public enum OutputFormat {
     TABLE,
     XML,
-    JSON
+    JSON,
+    /** One JSON object per line. */
+    NDJSON,
+    CSV,
+    /** Length-prefixed binary records, see {@link src.util.CarSerializer#writeBinary}. */
+    BINARY
 }
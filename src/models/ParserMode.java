@@ -0,0 +1,10 @@
+package src.models;
+
+/**
+ * Represents the strategies available for reading the XML car feed.
+ */
+public enum ParserMode {
+    DOM,
+    STREAMING,
+    PARALLEL
+}
@@ -0,0 +1,126 @@
+package src.models;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prices of an {@link Inventory} in any currency, as primitive columns indexed by row.
+ * <p>
+ * A car's price in a currency is the one it quotes in that currency, otherwise its base-currency
+ * price converted with the {@link ExchangeRates}. The base-currency column is computed together
+ * with the inventory: the quoted base price, else the default price, else the first quoted price
+ * having a rate. Columns of other currencies are filled in on first use and cached, so a price
+ * filter or sort in any currency compares one {@code double} per row. NaN marks rows without a
+ * price in the currency.
+ */
+public final class PriceConverter {
+
+    private final Inventory inventory;
+    private final ExchangeRates rates;
+    /** Null when there are no rates. */
+    private final double[] basePrices;
+    private final Map<String, double[]> columns = new ConcurrentHashMap<>();
+
+    PriceConverter(Inventory inventory, ExchangeRates rates) {
+        this.inventory = inventory;
+        this.rates = rates;
+        this.basePrices = rates.isEmpty() ? null : basePrices(inventory, rates);
+    }
+
+    public ExchangeRates rates() {
+        return rates;
+    }
+
+    /**
+     * Returns the base-currency column, or null when there are no rates.
+     */
+    public double[] basePrices() {
+        return basePrices;
+    }
+
+    /**
+     * Tells whether prices can be expressed in the currency: some car quotes it or it has a rate.
+     */
+    public boolean supports(String currency) {
+        return (basePrices != null && rates.hasRate(currency)) || quotedColumn(currency) >= 0;
+    }
+
+    /**
+     * Returns the prices of all rows in a currency, NaN where a row has none. The array is shared
+     * and must not be modified.
+     *
+     * @throws IllegalArgumentException if no car quotes the currency and it has no exchange rate
+     */
+    public double[] column(String currency) {
+        String code = ExchangeRates.normalize(currency);
+        if (basePrices != null && code.equals(rates.baseCurrency())) {
+            return basePrices;
+        }
+        if (!supports(code)) {
+            throw new IllegalArgumentException("No prices or exchange rate for currency " + code);
+        }
+        return columns.computeIfAbsent(code, this::computeColumn);
+    }
+
+    long footprintBytes() {
+        long bytes = HeapSize.of(basePrices) + HeapSize.mapEntries(columns.size());
+        for (double[] column : columns.values()) {
+            bytes += HeapSize.of(column);
+        }
+        return bytes;
+    }
+
+    private double[] computeColumn(String code) {
+        int size = inventory.size();
+        double[] column = new double[size];
+        int quoted = quotedColumn(code);
+        double rate = basePrices != null ? rates.rate(code) : Double.NaN;
+        for (int row = 0; row < size; row++) {
+            if (quoted >= 0 && inventory.hasPrice(quoted, row)) {
+                column[row] = inventory.prices[quoted][row];
+            } else {
+                // NaN base prices or rates stay NaN
+                column[row] = basePrices != null ? basePrices[row] * rate : Double.NaN;
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Returns the currency id of the inventory's quoted price column, or -1 if no car quotes the currency.
+     */
+    private int quotedColumn(String currency) {
+        int id = CurrencyRegistry.find(ExchangeRates.normalize(currency));
+        return id >= 0 && id < inventory.prices.length && inventory.prices[id] != null ? id : -1;
+    }
+
+    private static double[] basePrices(Inventory inventory, ExchangeRates rates) {
+        // rate per currency id, NaN for currencies without one
+        double[] rateById = new double[inventory.prices.length];
+        for (int id = 0; id < rateById.length; id++) {
+            rateById[id] = rates.rate(CurrencyRegistry.code(id));
+        }
+        int baseId = CurrencyRegistry.find(rates.baseCurrency());
+
+        double[] prices = new double[inventory.size()];
+        for (int row = 0; row < prices.length; row++) {
+            double price = Double.NaN;
+            if (inventory.hasPrice(baseId, row)) {
+                price = inventory.prices[baseId][row];
+            } else {
+                int defaultId = inventory.defaultCurrencyIds[row];
+                if (defaultId >= 0 && defaultId < rateById.length && !Double.isNaN(rateById[defaultId])) {
+                    price = inventory.defaultPrices[row] / rateById[defaultId];
+                } else {
+                    for (int id = 0; id < rateById.length && Double.isNaN(price); id++) {
+                        if (!Double.isNaN(rateById[id]) && inventory.hasPrice(id, row)) {
+                            price = inventory.prices[id][row] / rateById[id];
+                        }
+                    }
+                }
+            }
+            prices[row] = price;
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,176 @@
+package src.models;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Stable LSD radix sort of (unsigned {@code long} key, row id) pairs.
+ * <p>
+ * Keys are sorted one byte at a time, least significant first; bytes that are the same in every
+ * key are skipped, so e.g. epoch-day keys only take three or four passes. Each pass histograms and
+ * scatters disjoint chunks of the input on the common fork/join pool. Use the {@code *Key} helpers
+ * to turn prices, dates and ranks into keys whose unsigned order is the wanted sort order.
+ */
+public final class RadixSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    /** Inputs below this size, and chunks, are never split further. */
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private RadixSort() {
+    }
+
+    /**
+     * Returns {@code rows} reordered by ascending unsigned key, where {@code keys[i]} belongs to
+     * {@code rows[i]}; rows with equal keys keep their relative order. Neither array is modified.
+     */
+    public static int[] sort(long[] keys, int[] rows) {
+        int n = rows.length;
+        if (keys.length != n) {
+            throw new IllegalArgumentException("Expected one key per row");
+        }
+        long varying = 0;
+        for (int i = 1; i < n; i++) {
+            varying |= keys[i] ^ keys[0];
+        }
+
+        long[] keySource = keys.clone();
+        int[] rowSource = rows.clone();
+        long[] keyTarget = new long[n];
+        int[] rowTarget = new int[n];
+        int chunks = chunkCount(n);
+        int[][] offsets = new int[chunks][BUCKETS];
+
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            if (((varying >>> shift) & (BUCKETS - 1)) == 0) continue;
+            pass(keySource, rowSource, keyTarget, rowTarget, shift, offsets);
+            long[] keySwap = keySource;
+            keySource = keyTarget;
+            keyTarget = keySwap;
+            int[] rowSwap = rowSource;
+            rowSource = rowTarget;
+            rowTarget = rowSwap;
+        }
+        return rowSource;
+    }
+
+    /**
+     * Returns the positions {@code 0..keys.length-1} stably sorted by ascending unsigned key.
+     */
+    public static int[] sort(long[] keys) {
+        int[] positions = new int[keys.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return sort(keys, positions);
+    }
+
+    /**
+     * Maps a price to a key ordered like {@link Double#compare}, NaN last.
+     */
+    public static long priceKey(double price) {
+        long bits = Double.doubleToLongBits(price);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Maps a signed int, such as an epoch day or a rank, to a key ordered like {@link Integer#compare}.
+     */
+    public static long intKey(int value) {
+        return (value ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reverses the order of a key, for descending sorts that keep equal rows in their original order.
+     */
+    public static long descending(long key) {
+        return ~key;
+    }
+
+    /**
+     * One counting pass on the byte at {@code shift}: histogram per chunk, exclusive prefix sums
+     * over (bucket, chunk), then every chunk scatters its pairs to its own slots.
+     */
+    private static void pass(long[] keySource, int[] rowSource, long[] keyTarget, int[] rowTarget,
+                             int shift, int[][] offsets) {
+        int n = keySource.length;
+        int chunks = offsets.length;
+        int chunkSize = (n + chunks - 1) / chunks;
+
+        forEachChunk(chunks, chunk -> {
+            int[] counts = offsets[chunk];
+            Arrays.fill(counts, 0);
+            int end = Math.min(n, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                counts[(int) (keySource[i] >>> shift) & (BUCKETS - 1)]++;
+            }
+        });
+
+        int position = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int count = offsets[chunk][bucket];
+                offsets[chunk][bucket] = position;
+                position += count;
+            }
+        }
+
+        forEachChunk(chunks, chunk -> {
+            int[] next = offsets[chunk];
+            int end = Math.min(n, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                long key = keySource[i];
+                int target = next[(int) (key >>> shift) & (BUCKETS - 1)]++;
+                keyTarget[target] = key;
+                rowTarget[target] = rowSource[i];
+            }
+        });
+    }
+
+    private static int chunkCount(int n) {
+        int workers = ForkJoinPool.getCommonPoolParallelism();
+        if (workers < 2 || n < 2 * MIN_CHUNK) {
+            return 1;
+        }
+        return Math.min(workers * 4, n / MIN_CHUNK);
+    }
+
+    private static void forEachChunk(int chunks, IntConsumer action) {
+        if (chunks == 1) {
+            action.accept(0);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, action));
+        }
+    }
+
+    /**
+     * Runs an action for every chunk index of a range, splitting the range in halves.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        ChunkTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, mid, action), new ChunkTask(mid, to, action));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package src.models;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Full scans of the {@link Inventory} columns for filters that no index narrows down.
+ * <p>
+ * The row range is split into word-aligned chunks evaluated in parallel on the common fork/join
+ * pool. Each chunk produces 64 rows of selection bitmap at a time: every predicate yields its own
+ * word from a branch-free loop over a primitive column and the words are simply and-ed together,
+ * with the price presence bitmaps masking out rows without a price in a currency. A price limit in
+ * one currency reads a single {@link PriceConverter} column instead of every currency.
+ */
+final class ScanEngine {
+
+    /** Rows per leaf task; a multiple of 64 so that tasks never share a bitmap word. */
+    private static final int CHUNK_ROWS = 1 << 16;
+
+    private final Inventory inventory;
+    /** Brand id + 1 to match flag, so that {@link Inventory#NONE} reads slot 0, which never matches. */
+    private final boolean[] brandMatches;
+    private final int fromEpochDay;
+    private final int toEpochDay;
+    /** Whether {@link #maxPrice} limits the rows; a NaN limit then selects none. */
+    private final boolean byPrice;
+    private final double maxPrice;
+    /** Prices compared to {@link #maxPrice}, or null to match any currency price. */
+    private final double[] priceColumn;
+
+    /**
+     * @param brandMatches per brand id, whether the brand is selected; null selects every row
+     * @param fromEpochDay first selected release day, greater than {@link Car#NO_RELEASE_DATE} so that
+     *                     rows without a date never match; {@link Integer#MIN_VALUE} selects every row
+     * @param toEpochDay   last selected release day
+     * @param maxPrice     selects rows having any price lower or equal; null selects every row
+     * @param priceColumn  when not null, selects rows whose price in this column is lower or equal instead
+     */
+    private ScanEngine(Inventory inventory, boolean[] brandMatches, int fromEpochDay, int toEpochDay, Double maxPrice,
+                       double[] priceColumn) {
+        this.inventory = inventory;
+        if (brandMatches != null) {
+            this.brandMatches = new boolean[brandMatches.length + 1];
+            System.arraycopy(brandMatches, 0, this.brandMatches, 1, brandMatches.length);
+        } else {
+            this.brandMatches = null;
+        }
+        this.fromEpochDay = fromEpochDay;
+        this.toEpochDay = toEpochDay;
+        this.byPrice = maxPrice != null;
+        this.maxPrice = maxPrice != null ? maxPrice : 0;
+        this.priceColumn = priceColumn;
+    }
+
+    /**
+     * Returns the ids of the rows matching all criteria, in row order.
+     *
+     * @param brand        case-insensitive brand, or null
+     * @param maxPrice     matches if any currency price is lower or equal, or null
+     * @param fromEpochDay first release epoch day, or {@link Car#NO_RELEASE_DATE} for no lower bound
+     * @param toEpochDay   last release epoch day, or {@link Car#NO_RELEASE_DATE} for no upper bound
+     */
+    static int[] filter(Inventory inventory, String brand, Double maxPrice, int fromEpochDay, int toEpochDay) {
+        return filter(inventory, brand, maxPrice, null, fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Variant of {@link #filter(Inventory, String, Double, int, int)} comparing {@code maxPrice} to one
+     * price column, e.g. {@link PriceConverter#column}; null compares it to every currency price.
+     */
+    static int[] filter(Inventory inventory, String brand, Double maxPrice, double[] priceColumn,
+                        int fromEpochDay, int toEpochDay) {
+        boolean byDate = fromEpochDay != Car.NO_RELEASE_DATE || toEpochDay != Car.NO_RELEASE_DATE;
+        int from = !byDate ? Integer.MIN_VALUE
+                : fromEpochDay != Car.NO_RELEASE_DATE ? fromEpochDay : Car.NO_RELEASE_DATE + 1;
+        int to = toEpochDay != Car.NO_RELEASE_DATE ? toEpochDay : Integer.MAX_VALUE;
+
+        ScanEngine engine = new ScanEngine(inventory, brand != null ? inventory.brandMatches(brand) : null,
+                from, to, maxPrice, priceColumn);
+        long[] selection = new long[(inventory.size() + 63) >>> 6];
+        int size = inventory.size();
+        if (size <= CHUNK_ROWS) {
+            engine.scan(selection, 0, size);
+        } else {
+            ForkJoinPool.commonPool().invoke(engine.new ScanTask(selection, 0, size));
+        }
+        return rows(selection);
+    }
+
+    /**
+     * Fills the selection words covering rows {@code from} (a multiple of 64) to {@code to}.
+     */
+    private void scan(long[] selection, int from, int to) {
+        int[] brandIds = inventory.brandIds;
+        int[] releaseEpochDays = inventory.releaseEpochDays;
+        for (int base = from; base < to; base += 64) {
+            int end = Math.min(base + 64, to);
+            int word = base >>> 6;
+            long selected = end - base == 64 ? -1L : (1L << (end - base)) - 1;
+
+            if (brandMatches != null) {
+                long bits = 0;
+                for (int row = base; row < end; row++) {
+                    bits |= (brandMatches[brandIds[row] + 1] ? 1L : 0L) << row;
+                }
+                selected &= bits;
+            }
+            if (fromEpochDay != Integer.MIN_VALUE || toEpochDay != Integer.MAX_VALUE) {
+                long bits = 0;
+                for (int row = base; row < end; row++) {
+                    int epochDay = releaseEpochDays[row];
+                    bits |= (epochDay >= fromEpochDay & epochDay <= toEpochDay ? 1L : 0L) << row;
+                }
+                selected &= bits;
+            }
+            if (byPrice && priceColumn != null) {
+                long bits = 0;
+                for (int row = base; row < end; row++) {
+                    // rows without a price are NaN and never match
+                    bits |= (priceColumn[row] <= maxPrice ? 1L : 0L) << row;
+                }
+                selected &= bits;
+            } else if (byPrice && selected != 0) {
+                long any = 0;
+                for (int currency = 0; currency < inventory.prices.length; currency++) {
+                    double[] column = inventory.prices[currency];
+                    if (column == null) continue;
+                    long bits = 0;
+                    for (int row = base; row < end; row++) {
+                        bits |= (column[row] <= maxPrice ? 1L : 0L) << row;
+                    }
+                    any |= bits & inventory.pricePresence[currency][word];
+                }
+                selected &= any;
+            }
+            selection[word] = selected;
+        }
+    }
+
+    /**
+     * Returns the positions of the set bits, in increasing order.
+     */
+    static int[] rows(long[] selection) {
+        int count = 0;
+        for (long word : selection) {
+            count += Long.bitCount(word);
+        }
+        int[] rows = new int[count];
+        int i = 0;
+        for (int word = 0; word < selection.length; word++) {
+            long bits = selection[word];
+            while (bits != 0) {
+                rows[i++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Splits a row range in halves down to {@link #CHUNK_ROWS} and scans the leaves.
+     */
+    private final class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] selection;
+        private final int from;
+        private final int to;
+
+        ScanTask(long[] selection, int from, int to) {
+            this.selection = selection;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_ROWS) {
+                scan(selection, from, to);
+                return;
+            }
+            int mid = from + (((to - from) >>> 1) & -CHUNK_ROWS);
+            if (mid == from) mid += CHUNK_ROWS;
+            invokeAll(new ScanTask(selection, from, mid), new ScanTask(selection, mid, to));
+        }
+    }
+}
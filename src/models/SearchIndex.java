@@ -0,0 +1,486 @@
+package src.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Text search over the brands and models of an {@link Inventory}, built once per loaded version.
+ * <p>
+ * Each field keeps its distinct case-folded values ("terms") sorted, with the rows of every term.
+ * A prefix query ({@code "Toy*"}) is a binary search for the range of terms starting with it; a
+ * substring query ({@code "F-1"}) only checks the terms in the shortest posting list among its
+ * trigrams (three-character windows), so neither scans the cars. Both return row ids
+ * that {@link InventoryIndex#filter} combines with the other predicates.
+ * <p>
+ * {@link #complete} returns the terms starting with a prefix that have the most cars. A range
+ * maximum structure over the sorted terms' car counts yields them best first in O(N log N) for N
+ * completions, however many terms share the prefix.
+ */
+public final class SearchIndex {
+
+    /** Searched fields, in the order completions of equal weight are listed. */
+    public enum Field {
+        BRAND, MODEL;
+
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * One autocomplete suggestion.
+     *
+     * @param text  the value as first seen in the feeds
+     * @param field the field holding the value
+     * @param cars  the number of cars having it, ignoring case
+     */
+    public record Completion(String text, Field field, int cars) {
+    }
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final int size;
+    private final TermIndex brands;
+    private final TermIndex models;
+
+    private SearchIndex(Inventory inventory) {
+        this.size = inventory.size();
+        this.brands = new TermIndex(inventory.brandIds, inventory.brandCount(), inventory::brand);
+        this.models = new TermIndex(inventory.modelIds, inventory.modelCount(), inventory::model);
+    }
+
+    /**
+     * Builds the search index of the given inventory.
+     */
+    public static SearchIndex of(Inventory inventory) {
+        return new SearchIndex(inventory);
+    }
+
+    /**
+     * Returns the rows whose brand or model matches the query, in row order. Matching ignores case;
+     * a query ending with {@code *} matches values starting with the text before it, any other query
+     * values containing it.
+     *
+     * @throws IllegalArgumentException if the query has no text
+     */
+    public int[] rows(String query) {
+        String text = normalize(query);
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Search text must not be empty");
+        }
+        boolean prefix = isPrefixQuery(query);
+        int[][] postings = {brands.rows(text, prefix), models.rows(text, prefix)};
+        return union(postings);
+    }
+
+    /**
+     * Returns up to {@code limit} brands and models starting with the prefix (ignoring case), those
+     * with the most cars first, then alphabetically.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        String text = prefix != null ? normalize(prefix) : "";
+        List<Completion> completions = new ArrayList<>(2 * Math.min(limit, 64));
+        brands.complete(text, limit, Field.BRAND, completions);
+        models.complete(text, limit, Field.MODEL, completions);
+        completions.sort(Comparator.comparingInt(Completion::cars).reversed()
+                .thenComparing(completion -> InventoryIndex.fold(completion.text()))
+                .thenComparing(Completion::field));
+        return completions.size() > limit ? List.copyOf(completions.subList(0, limit)) : completions;
+    }
+
+    /**
+     * Returns the folded search text of a query, without a trailing prefix marker.
+     */
+    public static String normalize(String query) {
+        String text = query.trim();
+        if (text.endsWith("*")) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        return InventoryIndex.fold(text);
+    }
+
+    /**
+     * Tells whether a query only matches values starting with its text, see {@link #rows}.
+     */
+    public static boolean isPrefixQuery(String query) {
+        return query.trim().endsWith("*");
+    }
+
+    /**
+     * Estimates the heap used by the index, not counting the inventory it points into.
+     */
+    long footprintBytes() {
+        return brands.footprintBytes() + models.footprintBytes();
+    }
+
+    /**
+     * Sorts distinct row ids in place; through a bitmap when they are many compared to the inventory.
+     */
+    private void sortRows(int[] rows) {
+        if (rows.length > size >>> 6) {
+            long[] selection = new long[(size + 63) >>> 6];
+            for (int row : rows) {
+                selection[row >>> 6] |= 1L << row;
+            }
+            System.arraycopy(ScanEngine.rows(selection), 0, rows, 0, rows.length);
+        } else {
+            Arrays.sort(rows);
+        }
+    }
+
+    /**
+     * Merges ascending posting lists into one ascending list without duplicates; through a bitmap
+     * when they are large compared to the inventory.
+     */
+    private int[] union(int[][] postings) {
+        int total = 0;
+        int nonEmpty = 0;
+        int[] single = NO_ROWS;
+        for (int[] rows : postings) {
+            total += rows.length;
+            if (rows.length > 0) {
+                nonEmpty++;
+                single = rows;
+            }
+        }
+        if (nonEmpty <= 1) {
+            return single;
+        }
+        if (total > size >>> 6) {
+            long[] selection = new long[(size + 63) >>> 6];
+            for (int[] rows : postings) {
+                for (int row : rows) {
+                    selection[row >>> 6] |= 1L << row;
+                }
+            }
+            return ScanEngine.rows(selection);
+        }
+        int[] rows = new int[total];
+        int count = 0;
+        for (int[] list : postings) {
+            System.arraycopy(list, 0, rows, count, list.length);
+            count += list.length;
+        }
+        Arrays.sort(rows);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || rows[distinct - 1] != rows[i]) {
+                rows[distinct++] = rows[i];
+            }
+        }
+        return Arrays.copyOf(rows, distinct);
+    }
+
+    /**
+     * Sorted terms of one dictionary-encoded column with their posting lists, trigram index and
+     * range maximum structure over their car counts.
+     */
+    private final class TermIndex {
+
+        /** Terms per block of the range maximum structure. */
+        private static final int BLOCK = 64;
+
+        /** Distinct folded values, sorted. */
+        private final String[] terms;
+        /** Per term, the first value seen for it, shown in completions. */
+        private final String[] display;
+        /** Rows of term t are {@code postings[postingStart[t]]} up to {@code postings[postingStart[t + 1]]}. */
+        private final int[] postingStart;
+        private final int[] postings;
+        /** Sorted packed trigrams; the terms containing trigram i are listed like the postings. */
+        private final long[] trigrams;
+        private final int[] trigramStart;
+        private final int[] trigramTerms;
+        /** sparse[k][b]: best term in blocks b to b + 2^k - 1. */
+        private final int[][] sparse;
+
+        TermIndex(int[] ids, int dictionarySize, IntFunction<String> values) {
+            // fold the dictionary, values differing only by case share a term
+            String[] folded = new String[dictionarySize];
+            for (int id = 0; id < dictionarySize; id++) {
+                folded[id] = InventoryIndex.fold(values.apply(id));
+            }
+            String[] sorted = folded.clone();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (distinct == 0 || !sorted[distinct - 1].equals(sorted[i])) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            terms = Arrays.copyOf(sorted, distinct);
+            display = new String[distinct];
+            int[] termOfId = new int[dictionarySize];
+            for (int id = 0; id < dictionarySize; id++) {
+                int term = Arrays.binarySearch(terms, folded[id]);
+                termOfId[id] = term;
+                // dictionary ids follow first appearance
+                if (display[term] == null) display[term] = values.apply(id);
+            }
+
+            postingStart = new int[terms.length + 1];
+            for (int id : ids) {
+                if (id != Inventory.NONE) postingStart[termOfId[id] + 1]++;
+            }
+            for (int term = 0; term < terms.length; term++) {
+                postingStart[term + 1] += postingStart[term];
+            }
+            postings = new int[postingStart[terms.length]];
+            int[] filled = Arrays.copyOf(postingStart, terms.length);
+            for (int row = 0; row < ids.length; row++) {
+                if (ids[row] != Inventory.NONE) postings[filled[termOfId[ids[row]]]++] = row;
+            }
+
+            // trigram posting lists, each term listed once per distinct trigram, in term order
+            int windows = 0;
+            for (String term : terms) {
+                windows += Math.max(0, term.length() - 2);
+            }
+            long[] windowTrigrams = new long[windows];
+            for (int term = 0, w = 0; term < terms.length; term++) {
+                for (int i = 0; i + 3 <= terms[term].length(); i++) {
+                    windowTrigrams[w++] = trigram(terms[term], i);
+                }
+            }
+            long[] unique = windowTrigrams.clone();
+            Arrays.sort(unique);
+            int trigramCount = 0;
+            for (int i = 0; i < unique.length; i++) {
+                if (trigramCount == 0 || unique[trigramCount - 1] != unique[i]) {
+                    unique[trigramCount++] = unique[i];
+                }
+            }
+            trigrams = Arrays.copyOf(unique, trigramCount);
+
+            int[] windowSlots = new int[windows];
+            int[] lastTerm = new int[trigramCount];
+            Arrays.fill(lastTerm, -1);
+            trigramStart = new int[trigramCount + 1];
+            for (int term = 0, w = 0; term < terms.length; term++) {
+                for (int i = 0; i + 3 <= terms[term].length(); i++, w++) {
+                    int slot = Arrays.binarySearch(trigrams, windowTrigrams[w]);
+                    windowSlots[w] = slot;
+                    if (lastTerm[slot] != term) {
+                        lastTerm[slot] = term;
+                        trigramStart[slot + 1]++;
+                    }
+                }
+            }
+            for (int slot = 0; slot < trigramCount; slot++) {
+                trigramStart[slot + 1] += trigramStart[slot];
+            }
+            trigramTerms = new int[trigramStart[trigramCount]];
+            int[] next = Arrays.copyOf(trigramStart, trigramCount);
+            Arrays.fill(lastTerm, -1);
+            for (int term = 0, w = 0; term < terms.length; term++) {
+                for (int i = 0; i + 3 <= terms[term].length(); i++, w++) {
+                    int slot = windowSlots[w];
+                    if (lastTerm[slot] != term) {
+                        lastTerm[slot] = term;
+                        trigramTerms[next[slot]++] = term;
+                    }
+                }
+            }
+
+            // range maximum over car counts: best term per block, then a sparse table over blocks
+            int blocks = (terms.length + BLOCK - 1) / BLOCK;
+            int levels = 1;
+            while ((1 << levels) <= blocks) levels++;
+            sparse = new int[levels][];
+            sparse[0] = new int[blocks];
+            for (int block = 0; block < blocks; block++) {
+                sparse[0][block] = scanBest(block * BLOCK, Math.min(terms.length, (block + 1) * BLOCK));
+            }
+            for (int k = 1; k < levels; k++) {
+                int span = 1 << (k - 1);
+                sparse[k] = new int[blocks - (1 << k) + 1];
+                for (int block = 0; block < sparse[k].length; block++) {
+                    sparse[k][block] = better(sparse[k - 1][block], sparse[k - 1][block + span]);
+                }
+            }
+        }
+
+        /**
+         * Returns the rows of the terms matching the folded text, in row order.
+         */
+        int[] rows(String text, boolean prefix) {
+            if (prefix) {
+                int from = lowerBound(text);
+                int to = prefixEnd(text, from);
+                return rowsOfTerms(null, from, to);
+            }
+            int[] matches = substringTerms(text);
+            return rowsOfTerms(matches, 0, matches.length);
+        }
+
+        /**
+         * Adds the best {@code limit} terms starting with the folded prefix to the completions.
+         */
+        void complete(String prefix, int limit, Field field, List<Completion> completions) {
+            int from = lowerBound(prefix);
+            int to = prefixEnd(prefix, from);
+            if (from >= to || limit == 0) return;
+
+            // ranges ordered by their best term; taking one splits it around that term
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[2] == b[2] ? 0 : better(a[2], b[2]) == a[2] ? -1 : 1);
+            ranges.add(new int[]{from, to, best(from, to)});
+            for (int added = 0; added < limit && !ranges.isEmpty(); added++) {
+                int[] range = ranges.poll();
+                int term = range[2];
+                completions.add(new Completion(display[term], field, count(term)));
+                if (range[0] < term) ranges.add(new int[]{range[0], term, best(range[0], term)});
+                if (term + 1 < range[1]) ranges.add(new int[]{term + 1, range[1], best(term + 1, range[1])});
+            }
+        }
+
+        long footprintBytes() {
+            long bytes = HeapSize.references(terms.length) * 2 + HeapSize.of(postingStart) + HeapSize.of(postings)
+                    + HeapSize.of(trigrams) + HeapSize.of(trigramStart) + HeapSize.of(trigramTerms)
+                    + HeapSize.references(sparse.length);
+            for (String term : terms) {
+                bytes += HeapSize.of(term);
+            }
+            for (int[] level : sparse) {
+                bytes += HeapSize.of(level);
+            }
+            return bytes;
+        }
+
+        /**
+         * Returns the terms containing the folded text, in term order.
+         */
+        private int[] substringTerms(String text) {
+            if (text.length() < 3) {
+                // no complete trigram, the distinct terms are few compared to the rows
+                int[] matches = new int[terms.length];
+                int count = 0;
+                for (int term = 0; term < terms.length; term++) {
+                    if (terms[term].contains(text)) matches[count++] = term;
+                }
+                return Arrays.copyOf(matches, count);
+            }
+            // every matching term is in each trigram's list, check the shortest one
+            int shortest = -1;
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                int slot = Arrays.binarySearch(trigrams, trigram(text, i));
+                if (slot < 0) return NO_ROWS;
+                if (shortest < 0 || listSize(slot) < listSize(shortest)) shortest = slot;
+            }
+            int[] matches = new int[listSize(shortest)];
+            int count = 0;
+            for (int i = trigramStart[shortest]; i < trigramStart[shortest + 1]; i++) {
+                int term = trigramTerms[i];
+                if (text.length() == 3 || terms[term].contains(text)) matches[count++] = term;
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        /**
+         * Returns the rows of the given terms, or of terms {@code from} to {@code to} when
+         * {@code matches} is null, in row order.
+         */
+        private int[] rowsOfTerms(int[] matches, int from, int to) {
+            if (from >= to) return NO_ROWS;
+            int[] rows;
+            if (matches == null) {
+                // a term range has its postings side by side
+                rows = Arrays.copyOfRange(postings, postingStart[from], postingStart[to]);
+            } else {
+                int total = 0;
+                for (int i = from; i < to; i++) {
+                    total += count(matches[i]);
+                }
+                rows = new int[total];
+                for (int i = from, filled = 0; i < to; i++) {
+                    int term = matches[i];
+                    System.arraycopy(postings, postingStart[term], rows, filled, count(term));
+                    filled += count(term);
+                }
+            }
+            if (to - from > 1) {
+                // every row has one value, so the terms' rows are distinct
+                sortRows(rows);
+            }
+            return rows;
+        }
+
+        private int listSize(int slot) {
+            return trigramStart[slot + 1] - trigramStart[slot];
+        }
+
+        private int count(int term) {
+            return postingStart[term + 1] - postingStart[term];
+        }
+
+        /**
+         * Returns the term with the most cars among terms {@code from} to {@code to} (exclusive),
+         * the first one on ties.
+         */
+        private int best(int from, int to) {
+            int firstBlock = from / BLOCK;
+            int lastBlock = (to - 1) / BLOCK;
+            if (lastBlock - firstBlock < 2) {
+                return scanBest(from, to);
+            }
+            int best = better(scanBest(from, (firstBlock + 1) * BLOCK), scanBest(lastBlock * BLOCK, to));
+            int blocks = lastBlock - firstBlock - 1;
+            int k = 31 - Integer.numberOfLeadingZeros(blocks);
+            best = better(best, sparse[k][firstBlock + 1]);
+            return better(best, sparse[k][lastBlock - (1 << k)]);
+        }
+
+        private int scanBest(int from, int to) {
+            int best = from;
+            for (int term = from + 1; term < to; term++) {
+                if (count(term) > count(best)) best = term;
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            int countA = count(a);
+            int countB = count(b);
+            return countA > countB || (countA == countB && a < b) ? a : b;
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = terms.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (terms[mid].compareTo(key) < 0) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+
+        /**
+         * Returns the first term from {@code from} on not starting with the prefix.
+         */
+        private int prefixEnd(String prefix, int from) {
+            int low = from;
+            int high = terms.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (terms[mid].startsWith(prefix)) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Packs three characters into one key.
+     */
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+}
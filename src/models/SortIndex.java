@@ -0,0 +1,183 @@
+package src.models;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed sort orders of an {@link Inventory} on price, release date and brand.
+ * <p>
+ * For each field the rows are stably sorted once, when the version is loaded, and every row gets
+ * the rank of its tie group. An ascending sort is then a copy of the permutation; a descending one
+ * walks it backwards group by group, keeping equal rows in their original order exactly like a
+ * stable sort with a reversed comparator would. Subsets such as filter results are ordered
+ * through the same permutation or, when small, by their precomputed ranks.
+ */
+public final class SortIndex {
+
+    private static final int PRICE = 0;
+    private static final int DATE = 1;
+    private static final int BRAND = 2;
+    /** Subsets with at least one row in this many are ordered by walking the full permutation. */
+    private static final int WALK_RATIO = 16;
+
+    private final int size;
+    /** Per field: all rows in ascending order, equal rows in row order. */
+    private final int[][] orders = new int[3][];
+    /** Per field: dense rank of each row's value, equal values sharing a rank. */
+    private final int[][] ranks = new int[3][];
+
+    private SortIndex(Inventory inventory) {
+        size = inventory.size();
+        build(inventory, PRICE, "price");
+        build(inventory, DATE, "date");
+        build(inventory, BRAND, "brand");
+    }
+
+    /**
+     * Builds the price, date and brand orders of the given inventory.
+     */
+    public static SortIndex of(Inventory inventory) {
+        return new SortIndex(inventory);
+    }
+
+    /**
+     * Returns all rows sorted by price, date or brand (the default), like {@link Inventory#sort}.
+     */
+    public int[] sorted(String sortField, boolean descending) {
+        int field = field(sortField);
+        return descending ? reverseGroups(orders[field], ranks[field]) : orders[field].clone();
+    }
+
+    /**
+     * Returns one page of {@link #sorted(String, boolean)}: the rows at positions {@code offset} to
+     * {@code offset + limit} (exclusive), reading only the part of the permutation before the page end.
+     */
+    public int[] sorted(String sortField, boolean descending, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        int field = field(sortField);
+        int[] order = orders[field];
+        int from = Math.min(offset, size);
+        int to = (int) Math.min((long) offset + limit, size);
+        if (!descending) {
+            return Arrays.copyOfRange(order, from, to);
+        }
+
+        int[] rank = ranks[field];
+        int[] page = new int[to - from];
+        int position = 0;
+        for (int end = size; end > 0 && position < to; ) {
+            int start = end - 1;
+            while (start > 0 && rank[order[start - 1]] == rank[order[end - 1]]) {
+                start--;
+            }
+            for (int i = start; i < end && position < to; i++, position++) {
+                if (position >= from) {
+                    page[position - from] = order[i];
+                }
+            }
+            end = start;
+        }
+        return page;
+    }
+
+    /**
+     * Returns the given rows stably sorted by price, date or brand (the default), like {@link Inventory#sort},
+     * without comparing any values.
+     */
+    public int[] sort(int[] rows, String sortField, boolean descending) {
+        int field = field(sortField);
+        int[] rank = ranks[field];
+        int[] ascending;
+        if (rows.length >= size / WALK_RATIO && isIncreasing(rows)) {
+            long[] selected = new long[(size + 63) >>> 6];
+            for (int row : rows) {
+                selected[row >>> 6] |= 1L << row;
+            }
+            ascending = new int[rows.length];
+            int count = 0;
+            for (int row : orders[field]) {
+                if ((selected[row >>> 6] & (1L << row)) != 0) {
+                    ascending[count++] = row;
+                }
+            }
+        } else {
+            long[] keys = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                keys[i] = ((long) rank[rows[i]] << 32) | i;
+            }
+            Arrays.sort(keys);
+            ascending = new int[rows.length];
+            for (int i = 0; i < keys.length; i++) {
+                ascending[i] = rows[(int) keys[i]];
+            }
+        }
+        return descending ? reverseGroups(ascending, rank) : ascending;
+    }
+
+    /**
+     * Returns the position of a row's value among the distinct values of a field, in ascending order.
+     */
+    public int rank(String sortField, int row) {
+        return ranks[field(sortField)][row];
+    }
+
+    /**
+     * Estimates the heap used by the permutations and ranks.
+     */
+    long footprintBytes() {
+        long bytes = HeapSize.references(orders.length) + HeapSize.references(ranks.length);
+        for (int field = 0; field < orders.length; field++) {
+            bytes += HeapSize.of(orders[field]) + HeapSize.of(ranks[field]);
+        }
+        return bytes;
+    }
+
+    private void build(Inventory inventory, int field, String sortField) {
+        int[] order = inventory.sort(inventory.allRows(), sortField, false);
+        Inventory.RowComparator comparator = inventory.comparator(sortField);
+        int[] rank = new int[size];
+        for (int i = 1, current = 0; i < order.length; i++) {
+            if (comparator.compare(order[i - 1], order[i]) != 0) {
+                current++;
+            }
+            rank[order[i]] = current;
+        }
+        orders[field] = order;
+        ranks[field] = rank;
+    }
+
+    /**
+     * Reverses the order of the tie groups of an ascending sequence, keeping each group's own order.
+     */
+    private static int[] reverseGroups(int[] ascending, int[] rank) {
+        int[] result = new int[ascending.length];
+        int filled = 0;
+        for (int end = ascending.length; end > 0; ) {
+            int start = end - 1;
+            int groupRank = rank[ascending[start]];
+            while (start > 0 && rank[ascending[start - 1]] == groupRank) {
+                start--;
+            }
+            System.arraycopy(ascending, start, result, filled, end - start);
+            filled += end - start;
+            end = start;
+        }
+        return result;
+    }
+
+    private static boolean isIncreasing(int[] rows) {
+        for (int i = 1; i < rows.length; i++) {
+            if (rows[i - 1] >= rows[i]) return false;
+        }
+        return true;
+    }
+
+    private static int field(String sortField) {
+        return switch (sortField.toLowerCase()) {
+            case "price" -> PRICE;
+            case "date" -> DATE;
+            default -> BRAND;
+        };
+    }
+}
@@ -1,34 +1,109 @@
 package src.parser;
 
 import src.interfaces.CarParser;
+import src.metrics.Metrics;
+import src.metrics.Phase;
 import src.models.Car;
-import src.util.CsvReader;
+import src.models.ParserMode;
 import src.util.DateFormatter;
+import src.util.MappedCsvReader;
 import src.util.XmlParser;
 
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 public class CarParserImplementation implements CarParser {
 
     private static final XmlParser xmlParser = new XmlParser();
 
+    private final ParserMode mode;
+    private final ForkJoinPool pool;
+
+    public CarParserImplementation() {
+        this(ParserMode.DOM);
+    }
+
+    public CarParserImplementation(ParserMode mode) {
+        this(mode, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool running the chunk tasks of {@link ParserMode#PARALLEL}
+     */
+    public CarParserImplementation(ParserMode mode, ForkJoinPool pool) {
+        this.mode = Objects.requireNonNull(mode, "mode must not be null");
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+    }
+
     @Override
     public List<Car> build(Path csvPath, Path xmlPath) throws Exception {
-        // Parse cars from XML
-        List<Car> cars = xmlParser.parse(xmlPath);
-        // Read CSV data
-        List<List<String>> csvInfo = CsvReader.read(csvPath);
-
-        for (int i = 0; i < cars.size() && i < csvInfo.size(); i++) {
-            Car car = cars.get(i);
-            String[] info = csvInfo.get(i).get(0).split(",");
-            if (info.length >= 2) {
-                car.setBrand(info[0]);
-                car.setReleaseDate(DateFormatter.formatDate(info[1]));
+        return switch (mode) {
+            case DOM -> merge(xmlParser.parse(xmlPath), csvPath);
+            case STREAMING -> merge(xmlParser.parseStreaming(xmlPath), csvPath);
+            case PARALLEL -> new ParallelIngest(pool, xmlParser).build(csvPath, xmlPath);
+        };
+    }
+
+    /**
+     * Streams the merged cars through a bounded two-producer pipeline, whatever the configured mode.
+     */
+    @Override
+    public Stream<Car> stream(Path csvPath, Path xmlPath) {
+        return CarPipeline.stream(csvPath, xmlPath, xmlParser, CarPipeline.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Merges brand and release date from the CSV straight into the parsed cars.
+     */
+    private static List<Car> merge(List<Car> cars, Path csvPath) throws Exception {
+        long start = System.nanoTime();
+        int rows = MappedCsvReader.read(csvPath, new CsvMerger(cars));
+        Metrics.record(Phase.MERGE, start, rows, Math.min(rows, cars.size()));
+        return cars;
+    }
+
+    /**
+     * Copies brand and release date of the i-th CSV record onto the i-th car.
+     */
+    static final class CsvMerger implements MappedCsvReader.FieldVisitor {
+
+        private final List<Car> cars;
+        private final MappedCsvReader.StringPool brands = new MappedCsvReader.StringPool();
+        private String brand;
+        private int releaseEpochDay = Car.NO_RELEASE_DATE;
+
+        CsvMerger(List<Car> cars) {
+            this.cars = cars;
+        }
+
+        @Override
+        public void field(int row, int column, ByteBuffer buffer, int offset, int length) {
+            if (row >= cars.size()) return;
+            switch (column) {
+                case 0 -> brand = brands.get(buffer, offset, length);
+                case 1 -> releaseEpochDay = length > 0
+                        ? DateFormatter.parseEpochDay(buffer, offset, length)
+                        : Car.NO_RELEASE_DATE;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endRow(int row) {
+            if (row >= cars.size()) return;
+            Car car = cars.get(row);
+            if (releaseEpochDay != Car.NO_RELEASE_DATE) {
+                car.setBrand(brand);
+                car.setReleaseEpochDay(releaseEpochDay);
             }
             car.setDefaultCurrency("USD");
+            brand = null;
+            releaseEpochDay = Car.NO_RELEASE_DATE;
         }
-        return cars;
     }
 }
@@ -0,0 +1,216 @@
+package src.parser;
+
+import src.models.Car;
+import src.util.DateFormatter;
+import src.util.MappedCsvReader;
+import src.util.XmlParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bounded producer/consumer pipeline merging the CSV and XML feeds on the fly.
+ * One thread reads the XML cars and another one the CSV rows, each into its own bounded queue;
+ * the consuming thread zips both queues positionally and emits every merged car immediately.
+ * Memory use is bounded by the queue capacity whatever the size of the feeds.
+ */
+final class CarPipeline implements Iterator<Car>, AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Car END_OF_CARS = new Car("", "", 0, null);
+    private static final CsvRow END_OF_ROWS = new CsvRow(null, Car.NO_RELEASE_DATE);
+
+    private final BlockingQueue<Car> cars;
+    private final BlockingQueue<CsvRow> rows;
+    private final Thread xmlProducer;
+    private final Thread csvProducer;
+
+    private volatile Exception failure;
+    private boolean rowsDone;
+    private boolean carsDone;
+    private Car next;
+
+    private CarPipeline(Path csvPath, Path xmlPath, XmlParser xmlParser, int capacity) {
+        this.cars = new ArrayBlockingQueue<>(capacity);
+        this.rows = new ArrayBlockingQueue<>(capacity);
+        this.xmlProducer = new Thread(() -> produceCars(xmlParser, xmlPath), "car-pipeline-xml");
+        this.csvProducer = new Thread(() -> produceRows(csvPath), "car-pipeline-csv");
+        xmlProducer.setDaemon(true);
+        csvProducer.setDaemon(true);
+    }
+
+    /**
+     * Starts both producers and returns a sequential stream over the merged cars.
+     * Closing the stream stops the producers.
+     */
+    static Stream<Car> stream(Path csvPath, Path xmlPath, XmlParser xmlParser, int capacity) {
+        CarPipeline pipeline = new CarPipeline(csvPath, xmlPath, xmlParser, capacity);
+        pipeline.xmlProducer.start();
+        pipeline.csvProducer.start();
+        Spliterator<Car> spliterator = Spliterators.spliteratorUnknownSize(pipeline,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(pipeline::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !carsDone) {
+            next = take();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Car next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Car car = next;
+        next = null;
+        return car;
+    }
+
+    @Override
+    public void close() {
+        carsDone = true;
+        xmlProducer.interrupt();
+        csvProducer.interrupt();
+    }
+
+    /**
+     * Waits for the next XML car and its CSV row, or returns null once the XML feed is exhausted.
+     */
+    private Car take() {
+        Car car = await(cars);
+        if (car == END_OF_CARS) {
+            close();
+            rethrowFailure();
+            return null;
+        }
+        if (!rowsDone) {
+            CsvRow row = await(rows);
+            if (row == END_OF_ROWS) {
+                rowsDone = true;
+                rethrowFailure();
+            } else {
+                if (row.releaseEpochDay() != Car.NO_RELEASE_DATE) {
+                    car.setBrand(row.brand());
+                    car.setReleaseEpochDay(row.releaseEpochDay());
+                }
+                car.setDefaultCurrency("USD");
+            }
+        }
+        return car;
+    }
+
+    private <T> T await(BlockingQueue<T> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for car data", e);
+        }
+    }
+
+    private void rethrowFailure() {
+        Exception e = failure;
+        if (e == null) return;
+        close();
+        if (e instanceof RuntimeException runtime) throw runtime;
+        if (e instanceof IOException io) throw new UncheckedIOException(io);
+        throw new IllegalStateException("Failed to read car data", e);
+    }
+
+    private void produceCars(XmlParser xmlParser, Path xmlPath) {
+        try {
+            xmlParser.parseStreaming(xmlPath, car -> offer(cars, car));
+        } catch (Stopped ignored) {
+            return;
+        } catch (Exception e) {
+            failure = e;
+        }
+        offerQuietly(cars, END_OF_CARS);
+    }
+
+    private void produceRows(Path csvPath) {
+        try {
+            MappedCsvReader.read(csvPath, new RowCollector());
+        } catch (Stopped ignored) {
+            return;
+        } catch (Exception e) {
+            failure = e;
+        }
+        offerQuietly(rows, END_OF_ROWS);
+    }
+
+    private static <T> void offer(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            throw new Stopped();
+        }
+    }
+
+    private static <T> void offerQuietly(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException ignored) {
+            // consumer is gone, nobody waits for the end marker
+        }
+    }
+
+    /**
+     * Turns CSV fields into rows and hands them over to the consumer.
+     */
+    private final class RowCollector implements MappedCsvReader.FieldVisitor {
+
+        private final MappedCsvReader.StringPool pool = new MappedCsvReader.StringPool();
+        private String brand;
+        private int releaseEpochDay = Car.NO_RELEASE_DATE;
+
+        @Override
+        public void field(int row, int column, ByteBuffer buffer, int offset, int length) {
+            switch (column) {
+                case 0 -> brand = pool.get(buffer, offset, length);
+                case 1 -> releaseEpochDay = length > 0
+                        ? DateFormatter.parseEpochDay(buffer, offset, length)
+                        : Car.NO_RELEASE_DATE;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endRow(int row) {
+            offer(rows, new CsvRow(brand, releaseEpochDay));
+            brand = null;
+            releaseEpochDay = Car.NO_RELEASE_DATE;
+        }
+    }
+
+    private record CsvRow(String brand, int releaseEpochDay) {
+    }
+
+    /**
+     * Unwinds a producer whose consumer has closed the pipeline.
+     */
+    private static final class Stopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Stopped() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package src.parser;
+
+import src.interfaces.CarParser;
+import src.metrics.Metrics;
+import src.models.Car;
+import src.models.ExchangeRates;
+import src.models.InventoryVersion;
+import src.util.MappedCsvReader;
+import src.util.XmlParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the inventory in sync with the CSV and XML feeds.
+ * <p>
+ * The first load goes through the given {@link CarParser}. Afterwards both files are watched
+ * (WatchService events, with a periodic size/mtime check as a safety net) and every change is
+ * applied incrementally: the files are rescanned for record boundaries and fingerprints, and only
+ * the records that were appended or whose bytes changed are read and parsed again; all other cars
+ * are reused. Neither feed is ever held in memory as a whole, so their size is not limited.
+ * <p>
+ * Each reload publishes a new {@link InventoryVersion} atomically, so readers calling
+ * {@link #current()} never block and never see a partially loaded inventory.
+ */
+public class InventoryReloader implements AutoCloseable {
+
+    private static final XmlParser xmlParser = new XmlParser();
+    private static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(2);
+    private static final long DEBOUNCE_MILLIS = 200;
+    /** Limits the CSV bytes read at once for a run of changed records. */
+    private static final long MAX_RUN_BYTES = 1 << 24;
+
+    private final CarParser parser;
+    private final Path csvPath;
+    private final Path xmlPath;
+    private final ExchangeRates rates;
+    private final AtomicReference<InventoryVersion> current = new AtomicReference<>();
+    private final List<Consumer<InventoryVersion>> listeners = new CopyOnWriteArrayList<>();
+
+    // guarded by this; record fingerprints of the last scan, which is all that later scans compare with
+    private long[] csvHashes;
+    private long[] xmlHashes;
+    private boolean layoutMatchesCars;
+
+    private volatile Thread watcher;
+    private volatile Exception lastFailure;
+
+    public InventoryReloader(CarParser parser, Path csvPath, Path xmlPath) {
+        this(parser, csvPath, xmlPath, ExchangeRates.NONE);
+    }
+
+    /**
+     * @param rates exchange rates every published version converts prices with
+     */
+    public InventoryReloader(CarParser parser, Path csvPath, Path xmlPath, ExchangeRates rates) {
+        this.parser = Objects.requireNonNull(parser, "parser must not be null");
+        this.csvPath = Objects.requireNonNull(csvPath, "csvPath must not be null");
+        this.xmlPath = Objects.requireNonNull(xmlPath, "xmlPath must not be null");
+        this.rates = Objects.requireNonNull(rates, "rates must not be null");
+    }
+
+    /**
+     * Returns the latest published inventory, or null before the first {@link #load()}.
+     */
+    public InventoryVersion current() {
+        return current.get();
+    }
+
+    /**
+     * Registers a callback invoked with every newly published version.
+     */
+    public void addListener(Consumer<InventoryVersion> listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener must not be null"));
+    }
+
+    /**
+     * Returns the failure of the last background reload, or null if it succeeded.
+     * The previous version stays published when a reload fails.
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Fully loads both feeds through the parser and publishes the result.
+     *
+     * @throws Exception if any parsing error occurs
+     */
+    public synchronized InventoryVersion load() throws Exception {
+        long start = System.nanoTime();
+        // scan before parsing: a change racing with the parse is then picked up by the next reload
+        RecordLayout csv;
+        RecordLayout xml;
+        try (FileChannel csvChannel = FileChannel.open(csvPath, StandardOpenOption.READ);
+             FileChannel xmlChannel = FileChannel.open(xmlPath, StandardOpenOption.READ)) {
+            csv = RecordLayout.csv(csvChannel);
+            xml = RecordLayout.xml(xmlChannel);
+        }
+        List<Car> cars = parser.build(csvPath, xmlPath);
+        csvHashes = csv.hashes;
+        xmlHashes = xml.hashes;
+        layoutMatchesCars = cars.size() == xml.count;
+        InventoryVersion version = publish(cars);
+        Metrics.recordLoad(start, version.getVersion(), cars.size(), cars.size(), false);
+        return version;
+    }
+
+    /**
+     * Applies the changes made to the feeds since the last load.
+     * Only appended or modified records are parsed; unchanged cars are carried over.
+     *
+     * @return true if a new version was published
+     * @throws Exception if any parsing error occurs
+     */
+    public synchronized boolean reload() throws Exception {
+        long start = System.nanoTime();
+        InventoryVersion previous = current.get();
+        if (previous == null || !layoutMatchesCars) {
+            load();
+            return true;
+        }
+
+        // read rather than mapped: a mapping would keep the feeds locked on Windows until collected,
+        // and a writer truncating them mid-reload would fault the reads with an InternalError
+        try (FileChannel csv = FileChannel.open(csvPath, StandardOpenOption.READ);
+             FileChannel xml = FileChannel.open(xmlPath, StandardOpenOption.READ)) {
+            RecordLayout newCsv = RecordLayout.csv(csv);
+            RecordLayout newXml = RecordLayout.xml(xml);
+
+            List<Car> oldCars = previous.getCars();
+            List<Car> cars = new ArrayList<>(newXml.count);
+            CarParserImplementation.CsvMerger merger = new CarParserImplementation.CsvMerger(cars);
+            boolean changed = newXml.count != xmlHashes.length || newCsv.count != csvHashes.length;
+            int parsed = 0;
+
+            int i = 0;
+            while (i < newXml.count) {
+                if (!isDirty(i, newCsv, newXml)) {
+                    cars.add(oldCars.get(i++));
+                    continue;
+                }
+                int runStart = i;
+                while (i < newXml.count && isDirty(i, newCsv, newXml)
+                        && (i == runStart || csvBytes(newCsv, runStart, i + 1) <= MAX_RUN_BYTES)) {
+                    i++;
+                }
+                changed = true;
+                parsed += i - runStart;
+
+                int before = cars.size();
+                xmlParser.parseStreaming(
+                        RecordLayout.xmlDocument(xml, newXml, newXml.starts[runStart], newXml.ends[i - 1]),
+                        cars::add);
+                if (cars.size() - before != i - runStart) {
+                    // record boundaries and parser disagree, incremental update is not reliable
+                    load();
+                    return true;
+                }
+
+                int csvEnd = Math.min(i, newCsv.count);
+                if (runStart < csvEnd) {
+                    ByteBuffer rows = RecordLayout.read(csv, newCsv.starts[runStart], newCsv.ends[csvEnd - 1]);
+                    MappedCsvReader.scan(rows, 0, rows.limit(), runStart, merger);
+                }
+            }
+
+            csvHashes = newCsv.hashes;
+            xmlHashes = newXml.hashes;
+            if (!changed) {
+                return false;
+            }
+            InventoryVersion version = publish(cars);
+            Metrics.recordLoad(start, version.getVersion(), parsed, cars.size(), true);
+            return true;
+        }
+    }
+    /**
+     * Starts watching both feeds on a daemon thread, reloading on every change.
+     */
+    public void start() {
+        start(DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * @param pollInterval how often file sizes and modification times are checked when no event arrives
+     */
+    public synchronized void start(Duration pollInterval) {
+        if (watcher != null) return;
+        Thread thread = new Thread(() -> watch(pollInterval), "inventory-reloader");
+        thread.setDaemon(true);
+        watcher = thread;
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        Thread thread = watcher;
+        watcher = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private boolean isDirty(int i, RecordLayout newCsv, RecordLayout newXml) {
+        if (i >= xmlHashes.length || newXml.hashes[i] != xmlHashes[i]) {
+            return true;
+        }
+        boolean hadRow = i < csvHashes.length;
+        boolean hasRow = i < newCsv.count;
+        return hadRow != hasRow || (hasRow && newCsv.hashes[i] != csvHashes[i]);
+    }
+
+    /**
+     * Returns the CSV bytes of the records {@code from} (inclusive) to {@code to} (exclusive) that exist.
+     */
+    private static long csvBytes(RecordLayout csv, int from, int to) {
+        int end = Math.min(to, csv.count);
+        return from < end ? csv.ends[end - 1] - csv.starts[from] : 0;
+    }
+
+    private InventoryVersion publish(List<Car> cars) {
+        InventoryVersion previous = current.get();
+        InventoryVersion next = new InventoryVersion(previous == null ? 1 : previous.getVersion() + 1, cars, rates);
+        current.set(next);
+        listeners.forEach(listener -> listener.accept(next));
+        return next;
+    }
+
+    private void watch(Duration pollInterval) {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            Set<Path> directories = new LinkedHashSet<>();
+            directories.add(directoryOf(csvPath));
+            directories.add(directoryOf(xmlPath));
+            for (Path directory : directories) {
+                directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+
+            FileStamp stamp = FileStamp.of(csvPath, xmlPath);
+            while (watcher == Thread.currentThread()) {
+                WatchKey key = service.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                // writers usually touch the file several times in a row, wait for them to settle
+                while (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                    key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                FileStamp latest = FileStamp.of(csvPath, xmlPath);
+                if (latest.equals(stamp)) continue;
+                try {
+                    reload();
+                    stamp = latest;
+                    lastFailure = null;
+                } catch (Exception e) {
+                    // most likely a file caught mid-write; keep the current version and retry later
+                    lastFailure = e;
+                } catch (InternalError e) {
+                    // a parser mapping the feeds faults when a writer truncates them; same as above
+                    lastFailure = new IOException("Feed changed while being read: " + e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            lastFailure = e;
+        }
+    }
+
+    private static Path directoryOf(Path path) {
+        Path parent = path.toAbsolutePath().getParent();
+        return parent != null ? parent : path.toAbsolutePath();
+    }
+
+    private record FileStamp(long csvSize, long csvModified, long xmlSize, long xmlModified) {
+
+        static FileStamp of(Path csvPath, Path xmlPath) {
+            try {
+                return new FileStamp(Files.size(csvPath), Files.getLastModifiedTime(csvPath).toMillis(),
+                        Files.size(xmlPath), Files.getLastModifiedTime(xmlPath).toMillis());
+            } catch (IOException e) {
+                return new FileStamp(-1, -1, -1, -1);
+            }
+        }
+    }
+}
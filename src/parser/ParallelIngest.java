@@ -0,0 +1,231 @@
+package src.parser;
+
+import src.models.Car;
+import src.util.DateFormatter;
+import src.util.MappedCsvReader;
+import src.util.XmlParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel ingestion of the CSV and XML feeds.
+ * Both files are split into byte ranges that start on a record boundary ({@code <car>} elements
+ * for the XML, line ends for the CSV); XML ranges are streamed from the file and each CSV range is
+ * memory-mapped on its own, so feeds beyond the 2 GB mapping limit work. Every range is parsed by its own
+ * fork/join task and the per-range results are concatenated in file order, so the i-th CSV row
+ * still lines up with the i-th XML car. A chunk that fails to parse or yields a different number
+ * of cars than the record scan found makes the XML fall back to one sequential parse.
+ * <p>
+ * CSV records spanning several lines (quoted line breaks) are not supported in this mode.
+ */
+final class ParallelIngest {
+
+    /** Ranges smaller than this are not worth a task of their own. */
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    /** Keeps every CSV range within one mapping. */
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final XmlParser xmlParser;
+
+    ParallelIngest(ForkJoinPool pool, XmlParser xmlParser) {
+        this.pool = pool;
+        this.xmlParser = xmlParser;
+    }
+
+    List<Car> build(Path csvPath, Path xmlPath) throws Exception {
+        try (FileChannel xml = FileChannel.open(xmlPath, StandardOpenOption.READ);
+             FileChannel csv = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            return build(csv, xml);
+        }
+    }
+
+    private List<Car> build(FileChannel csv, FileChannel xml) throws Exception {
+        RecordLayout layout = RecordLayout.xmlBoundaries(xml);
+        List<XmlChunkTask> xmlTasks = splitXml(xml, layout);
+        List<CsvChunkTask> csvTasks = splitCsv(csv);
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<ForkJoinTask<?>> all = new ArrayList<>(xmlTasks);
+                all.addAll(csvTasks);
+                invokeAll(all);
+            }
+        });
+
+        int carCount = 0;
+        boolean reliable = true;
+        for (XmlChunkTask task : xmlTasks) {
+            reliable &= task.isReliable();
+            carCount += reliable ? task.getRawResult().size() : 0;
+        }
+        List<Car> cars = new ArrayList<>(carCount);
+        if (reliable) {
+            for (XmlChunkTask task : xmlTasks) {
+                cars.addAll(task.getRawResult());
+            }
+        } else {
+            // record boundaries and parser disagree; a parse of the whole file reports the real error, if any
+            xmlParser.parseStreaming(RecordLayout.range(xml, 0, layout.size), cars::add);
+        }
+
+        int row = 0;
+        for (CsvChunkTask task : csvTasks) {
+            for (int i = 0; i < task.rows && row < cars.size(); i++, row++) {
+                Car car = cars.get(row);
+                if (task.dates[i] != Car.NO_RELEASE_DATE) {
+                    car.setBrand(task.brands[i]);
+                    car.setReleaseEpochDay(task.dates[i]);
+                }
+                car.setDefaultCurrency("USD");
+            }
+        }
+        return cars;
+    }
+
+    private List<XmlChunkTask> splitXml(FileChannel xml, RecordLayout layout) {
+        List<XmlChunkTask> tasks = new ArrayList<>();
+        if (layout.count == 0) {
+            // the whole document is the prolog
+            tasks.add(new XmlChunkTask(xml, layout, layout.size, layout.size, -1));
+            return tasks;
+        }
+
+        long chunkSize = chunkSize(layout.epilogStart - layout.prologEnd);
+        int first = 0;
+        while (first < layout.count) {
+            long limit = layout.starts[first] + chunkSize;
+            int next = first + 1;
+            while (next < layout.count && layout.starts[next] < limit) {
+                next++;
+            }
+            tasks.add(new XmlChunkTask(xml, layout, layout.starts[first], layout.ends[next - 1], next - first));
+            first = next;
+        }
+        return tasks;
+    }
+
+    private List<CsvChunkTask> splitCsv(FileChannel csv) throws IOException {
+        long size = csv.size();
+        long start = RecordLayout.csvHeaderEnd(csv);
+        List<CsvChunkTask> tasks = new ArrayList<>();
+        long chunkSize = chunkSize(size - start);
+        while (start < size) {
+            long next = Math.min(size, start + chunkSize);
+            if (next < size) {
+                next = RecordLayout.nextLine(csv, next - 1);
+            }
+            tasks.add(new CsvChunkTask(RecordLayout.map(csv, start, next)));
+            start = next;
+        }
+        return tasks;
+    }
+
+    private long chunkSize(long bytes) {
+        int chunks = Math.max(1, pool.getParallelism() * CHUNKS_PER_WORKER);
+        return Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, bytes / chunks + 1));
+    }
+
+    /**
+     * Parses the cars of one range. The range is wrapped between the original document prolog
+     * (everything before the first car) and epilog (everything after the last car), so each chunk
+     * is a well-formed document with the source encoding declaration.
+     */
+    private final class XmlChunkTask extends RecursiveTask<List<Car>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel xml;
+        private final RecordLayout layout;
+        private final long from;
+        private final long to;
+        /** Number of cars the record scan found in the range, or -1 if unknown. */
+        private final int expected;
+        private boolean failed;
+
+        private XmlChunkTask(FileChannel xml, RecordLayout layout, long from, long to, int expected) {
+            this.xml = xml;
+            this.layout = layout;
+            this.from = from;
+            this.to = to;
+            this.expected = expected;
+        }
+
+        @Override
+        protected List<Car> compute() {
+            List<Car> cars = new ArrayList<>();
+            InputStream document = RecordLayout.xmlDocument(xml, layout, from, to);
+            try {
+                xmlParser.parseStreaming(document, cars::add);
+            } catch (Exception e) {
+                failed = true;
+            }
+            return cars;
+        }
+
+        boolean isReliable() {
+            return !failed && (expected < 0 || getRawResult().size() == expected);
+        }
+    }
+
+    /**
+     * Decodes brand and release date of every record in one CSV range.
+     */
+    private static final class CsvChunkTask extends RecursiveAction implements MappedCsvReader.FieldVisitor {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer csv;
+        private final MappedCsvReader.StringPool pool = new MappedCsvReader.StringPool();
+        private String[] brands = new String[256];
+        private int[] dates = new int[256];
+        private int rows;
+
+        private CsvChunkTask(ByteBuffer csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        protected void compute() {
+            MappedCsvReader.scan(csv, 0, csv.limit(), 0, this);
+        }
+
+        @Override
+        public void field(int row, int column, ByteBuffer buffer, int offset, int length) {
+            if (row >= brands.length) {
+                brands = Arrays.copyOf(brands, brands.length * 2);
+                dates = Arrays.copyOf(dates, dates.length * 2);
+            }
+            switch (column) {
+                case 0 -> {
+                    brands[row] = pool.get(buffer, offset, length);
+                    dates[row] = Car.NO_RELEASE_DATE;
+                }
+                case 1 -> dates[row] = length > 0
+                        ? DateFormatter.parseEpochDay(buffer, offset, length)
+                        : Car.NO_RELEASE_DATE;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endRow(int row) {
+            rows = row + 1;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package src.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte offsets and content fingerprints of the records of one feed file:
+ * {@code <car>} elements for the XML, data lines for the CSV.
+ * Building a layout is a single scan over the file bytes without any parsing, which lets
+ * callers split a feed on record boundaries or find out which records changed between two
+ * versions of a file. The XML scan skips comments, CDATA sections and processing instructions,
+ * so tags quoted in them are not taken for records; well-formed attribute values cannot hold a
+ * {@code <}.
+ * <p>
+ * Files are read through a small window at explicit positions, so feeds of any size can be
+ * scanned, and record ranges are read back on demand, never the whole file at once.
+ */
+final class RecordLayout {
+
+    private static final byte[] CAR_OPEN = "<car".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CAR_CLOSE = "</car>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMPTY_CAR = "<car/>".getBytes(StandardCharsets.US_ASCII);
+    /** Sections whose content is not markup, each with its terminator. */
+    private static final byte[][] SECTION_OPEN = {
+            "<!--".getBytes(StandardCharsets.US_ASCII),
+            "<![CDATA[".getBytes(StandardCharsets.US_ASCII),
+            "<?".getBytes(StandardCharsets.US_ASCII)
+    };
+    private static final byte[][] SECTION_CLOSE = {
+            "-->".getBytes(StandardCharsets.US_ASCII),
+            "]]>".getBytes(StandardCharsets.US_ASCII),
+            "?>".getBytes(StandardCharsets.US_ASCII)
+    };
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    /** Bytes read at a time while scanning. */
+    private static final int WINDOW_BYTES = 1 << 20;
+    /** Bytes kept before the position a window is refilled for, so fingerprinting a record rarely reads twice. */
+    private static final int LOOKBACK_BYTES = 1 << 16;
+    private static final int STREAM_BUFFER_BYTES = 1 << 16;
+
+    /** File size when scanned. */
+    final long size;
+    /** Offset where the records start; for the XML everything before is the document prolog. */
+    final long prologEnd;
+    /** Offset where the records end; for the XML everything after is the document epilog. */
+    final long epilogStart;
+    final int count;
+    final long[] starts;
+    final long[] ends;
+    /** Record fingerprints, null for a layout built without them. All arrays have {@code count} elements. */
+    final long[] hashes;
+
+    private RecordLayout(long size, long prologEnd, long epilogStart, int count, long[] starts, long[] ends,
+                         long[] hashes) {
+        this.size = size;
+        this.prologEnd = prologEnd;
+        this.epilogStart = epilogStart;
+        this.count = count;
+        this.starts = starts;
+        this.ends = ends;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Scans the {@code <car>} elements of an XML feed.
+     */
+    static RecordLayout xml(FileChannel channel) throws IOException {
+        return xml(new Source(channel), true);
+    }
+
+    /**
+     * Like {@link #xml(FileChannel)}, without the fingerprints, for callers that only split the feed.
+     */
+    static RecordLayout xmlBoundaries(FileChannel channel) throws IOException {
+        return xml(new Source(channel), false);
+    }
+
+    private static RecordLayout xml(Source source, boolean hashed) throws IOException {
+        long size = source.size;
+        long first = indexOfCarStart(source, 0, size);
+        Builder builder = new Builder(hashed);
+        long last = -1;
+        long pos = first;
+        while (pos >= 0) {
+            long end = matchesAt(source, pos, size, EMPTY_CAR) ? pos + EMPTY_CAR.length : indexOfCarEnd(source, pos, size);
+            if (end < 0) break;
+            builder.add(pos, end, hashed ? hash(source, pos, end) : 0);
+            last = end;
+            pos = indexOfCarStart(source, end, size);
+        }
+        if (last < 0) {
+            return new Builder(hashed).build(size, size, size);
+        }
+        return builder.build(size, first, last);
+    }
+
+    /**
+     * Scans the data lines of a CSV feed, skipping the BOM and header line.
+     */
+    static RecordLayout csv(FileChannel channel) throws IOException {
+        Source source = new Source(channel);
+        long size = source.size;
+        long first = headerEnd(source);
+        Builder builder = new Builder(true);
+        long start = first;
+        long hash = FNV_OFFSET;
+        for (long pos = first; pos < size; pos++) {
+            byte b = source.get(pos);
+            hash = (hash ^ b) * FNV_PRIME;
+            if (b == '\n') {
+                builder.add(start, pos + 1, hash);
+                start = pos + 1;
+                hash = FNV_OFFSET;
+            }
+        }
+        if (start < size) {
+            builder.add(start, size, hash);
+        }
+        return builder.build(size, first, size);
+    }
+
+    /**
+     * Returns the offset of the first CSV record, after an optional UTF-8 BOM and the header line.
+     */
+    static long csvHeaderEnd(FileChannel channel) throws IOException {
+        return headerEnd(new Source(channel));
+    }
+
+    /**
+     * Returns the offset just after the first line feed at or after {@code from}, or the file size.
+     */
+    static long nextLine(FileChannel channel, long from) throws IOException {
+        return nextLine(new Source(channel), from);
+    }
+
+    /**
+     * Maps a range of the file read-only.
+     *
+     * @throws IOException if the range cannot be mapped or exceeds the 2 GB mapping limit
+     */
+    static MappedByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        if (to - from > Integer.MAX_VALUE) {
+            throw new IOException("Range too large to map: " + from + ".." + to);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    }
+
+    /**
+     * Reads a range of the file into a heap buffer. Unlike {@link #map}, the file is not locked
+     * afterwards, and a writer truncating it meanwhile fails the read instead of faulting it.
+     *
+     * @throws IOException if the range cannot be read or exceeds 2 GB
+     */
+    static ByteBuffer read(FileChannel channel, long from, long to) throws IOException {
+        if (to - from > Integer.MAX_VALUE - 8) {
+            throw new IOException("Range too large to read: " + from + ".." + to);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        readFully(channel, buffer, from);
+        if (buffer.hasRemaining()) {
+            throw new IOException("File shrank while being read");
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Streams a range of the file. Reads go to explicit positions, so several streams, e.g. of
+     * parallel tasks, can share the channel.
+     */
+    static InputStream range(FileChannel channel, long from, long to) {
+        return new InputStream() {
+            private final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(STREAM_BUFFER_BYTES, Math.max(0, to - from)))
+                    .limit(0);
+            private long position = from;
+
+            @Override
+            public int read() throws IOException {
+                return fill() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return 0;
+                if (!fill()) return -1;
+                int n = Math.min(len, buffer.remaining());
+                buffer.get(b, off, n);
+                return n;
+            }
+
+            private boolean fill() throws IOException {
+                if (buffer.hasRemaining()) return true;
+                if (position >= to) return false;
+                buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+                readFully(channel, buffer, position);
+                buffer.flip();
+                position += buffer.remaining();
+                return buffer.hasRemaining();
+            }
+        };
+    }
+
+    /**
+     * Wraps a range of {@code <car>} elements between the document prolog and epilog of the layout,
+     * producing a well-formed document in the source encoding.
+     */
+    static InputStream xmlDocument(FileChannel channel, RecordLayout layout, long from, long to) {
+        return new SequenceInputStream(
+                new SequenceInputStream(range(channel, 0, layout.prologEnd), range(channel, from, to)),
+                range(channel, layout.epilogStart, layout.size));
+    }
+
+    /**
+     * Finds the next {@code <car>} start tag (not {@code <cars>}) at or after {@code from}, which must
+     * not lie inside a comment, CDATA section or processing instruction.
+     */
+    private static long indexOfCarStart(Source source, long from, long to) throws IOException {
+        long pos = from;
+        while (pos + CAR_OPEN.length < to) {
+            if (source.get(pos) == '<') {
+                long skipped = skipSection(source, pos, to);
+                if (skipped != pos) {
+                    pos = skipped;
+                    continue;
+                }
+                if (matchesAt(source, pos, to, CAR_OPEN)) {
+                    byte next = source.get(pos + CAR_OPEN.length);
+                    if (next == '>' || next == '/' || Character.isWhitespace(next)) {
+                        return pos;
+                    }
+                }
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset just after the {@code </car>} tag closing the element starting at {@code from},
+     * or -1 if it is not closed before {@code to}.
+     */
+    private static long indexOfCarEnd(Source source, long from, long to) throws IOException {
+        long pos = from;
+        while (pos + CAR_CLOSE.length <= to) {
+            if (source.get(pos) == '<') {
+                long skipped = skipSection(source, pos, to);
+                if (skipped != pos) {
+                    pos = skipped;
+                    continue;
+                }
+                if (matchesAt(source, pos, to, CAR_CLOSE)) {
+                    return pos + CAR_CLOSE.length;
+                }
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset after the comment, CDATA section or processing instruction starting at
+     * {@code pos} ({@code to} if it is not terminated), or {@code pos} if none starts there.
+     */
+    private static long skipSection(Source source, long pos, long to) throws IOException {
+        for (int i = 0; i < SECTION_OPEN.length; i++) {
+            if (matchesAt(source, pos, to, SECTION_OPEN[i])) {
+                byte[] close = SECTION_CLOSE[i];
+                for (long end = pos + SECTION_OPEN[i].length; end + close.length <= to; end++) {
+                    if (matchesAt(source, end, to, close)) {
+                        return end + close.length;
+                    }
+                }
+                return to;
+            }
+        }
+        return pos;
+    }
+
+    private static long headerEnd(Source source) throws IOException {
+        return nextLine(source, matchesAt(source, 0, source.size, BOM) ? BOM.length : 0);
+    }
+
+    private static long nextLine(Source source, long from) throws IOException {
+        long pos = from;
+        while (pos < source.size && source.get(pos) != '\n') {
+            pos++;
+        }
+        return pos < source.size ? pos + 1 : source.size;
+    }
+
+    private static boolean matchesAt(Source source, long pos, long to, byte[] pattern) throws IOException {
+        if (pos + pattern.length > to) return false;
+        for (int i = 0; i < pattern.length; i++) {
+            if (source.get(pos + i) != pattern[i]) return false;
+        }
+        return true;
+    }
+
+    private static long hash(Source source, long from, long to) throws IOException {
+        long hash = FNV_OFFSET;
+        for (long pos = from; pos < to; pos++) {
+            hash = (hash ^ source.get(pos)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, pos);
+            if (n < 0) break;
+            pos += n;
+        }
+    }
+
+    /**
+     * Byte access to a file by offset through a window that is refilled on demand. The size is
+     * fixed when created; bytes appended afterwards are left for the next scan.
+     */
+    private static final class Source {
+        private final FileChannel channel;
+        private final long size;
+        private final byte[] window;
+        private long windowStart;
+        private long windowEnd;
+
+        private Source(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.window = new byte[(int) Math.min(WINDOW_BYTES, Math.max(size, 1))];
+        }
+
+        byte get(long pos) throws IOException {
+            if (pos < windowStart || pos >= windowEnd) {
+                fill(pos);
+            }
+            return window[(int) (pos - windowStart)];
+        }
+
+        private void fill(long pos) throws IOException {
+            windowStart = Math.max(0, Math.min(pos - LOOKBACK_BYTES, size - window.length));
+            ByteBuffer buffer = ByteBuffer.wrap(window);
+            readFully(channel, buffer, windowStart);
+            windowEnd = windowStart + buffer.position();
+            if (pos >= windowEnd) {
+                throw new IOException("File shrank while being scanned");
+            }
+        }
+    }
+
+    private static final class Builder {
+        private long[] starts = new long[256];
+        private long[] ends = new long[256];
+        private long[] hashes;
+        private int count;
+
+        Builder(boolean hashed) {
+            hashes = hashed ? new long[256] : null;
+        }
+
+        void add(long start, long end, long hash) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                if (hashes != null) hashes = Arrays.copyOf(hashes, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            if (hashes != null) hashes[count] = hash;
+            count++;
+        }
+
+        RecordLayout build(long size, long prologEnd, long epilogStart) {
+            // trimmed, the arrays of large feeds are kept across reloads
+            return new RecordLayout(size, prologEnd, epilogStart, count, Arrays.copyOf(starts, count),
+                    Arrays.copyOf(ends, count), hashes != null ? Arrays.copyOf(hashes, count) : null);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package src.parser;
+
+import src.interfaces.CarParser;
+import src.models.Car;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link CarParser} decorator keeping a binary snapshot of the last parsed inventory.
+ * <p>
+ * After a successful parse the cars are written as a compact columnar image: a string table
+ * (brands, models, types, currencies), epoch-day release dates and one primitive price column
+ * per currency. The image is keyed by the size, modification time and CRC32C of both source
+ * files; as long as they are unchanged, later startups memory-map the image and rebuild the
+ * cars without any text or date parsing. Any mismatch or unreadable snapshot falls back to the
+ * wrapped parser, and the snapshot is rewritten.
+ */
+public class SnapshotCarParser implements CarParser {
+
+    private static final int MAGIC = 0x43415253; // "CARS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NONE = -1;
+
+    private final CarParser delegate;
+    private final Path snapshotPath;
+
+    public SnapshotCarParser(CarParser delegate, Path snapshotPath) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.snapshotPath = Objects.requireNonNull(snapshotPath, "snapshotPath must not be null");
+    }
+
+    @Override
+    public List<Car> build(Path csvPath, Path xmlPath) throws Exception {
+        SourceKey key = SourceKey.of(csvPath, xmlPath);
+        List<Car> cars = load(key);
+        if (cars != null) {
+            return cars;
+        }
+
+        cars = delegate.build(csvPath, xmlPath);
+        try {
+            write(key, cars);
+        } catch (IOException e) {
+            // a missing snapshot only costs a parse on the next startup
+            Files.deleteIfExists(tempPath());
+        }
+        return cars;
+    }
+
+    /**
+     * Streams from the snapshot when it is up to date, otherwise from the wrapped parser.
+     */
+    @Override
+    public Stream<Car> stream(Path csvPath, Path xmlPath) throws Exception {
+        List<Car> cars = load(SourceKey.of(csvPath, xmlPath));
+        return cars != null ? cars.stream() : delegate.stream(csvPath, xmlPath);
+    }
+
+    /**
+     * Returns the cars stored in the snapshot, or null if it is missing, stale or unreadable.
+     */
+    private List<Car> load(SourceKey key) {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (!key.equals(SourceKey.read(buffer))) {
+                return null;
+            }
+            return readCars(buffer);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException
+                 | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static List<Car> readCars(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int count = buffer.getInt();
+        int[] brands = readInts(buffer, count);
+        int[] models = readInts(buffer, count);
+        int[] types = readInts(buffer, count);
+        int[] dates = readInts(buffer, count);
+        int[] defaultCurrencies = readInts(buffer, count);
+        double[] defaultPrices = readDoubles(buffer, count);
+
+        int currencyCount = buffer.getInt();
+        String[] currencies = new String[currencyCount];
+        long[][] presence = new long[currencyCount][];
+        double[][] prices = new double[currencyCount][];
+        for (int c = 0; c < currencyCount; c++) {
+            currencies[c] = strings[buffer.getInt()];
+            presence[c] = readLongs(buffer, (count + 63) >>> 6);
+            prices[c] = readDoubles(buffer, count);
+        }
+
+        List<Car> cars = new ArrayList<>(count);
+        Map<String, Double> carPrices = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            carPrices.clear();
+            for (int c = 0; c < currencyCount; c++) {
+                if ((presence[c][i >>> 6] & (1L << i)) != 0) {
+                    carPrices.put(currencies[c], prices[c][i]);
+                }
+            }
+            Car car = new Car(strings[models[i]], strings[types[i]], defaultPrices[i], carPrices);
+            car.setBrand(lookup(strings, brands[i]));
+            car.setDefaultCurrency(lookup(strings, defaultCurrencies[i]));
+            car.setReleaseEpochDay(dates[i]);
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    private void write(SourceKey key, List<Car> cars) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<String, Integer> currencyColumns = new LinkedHashMap<>();
+        int count = cars.size();
+        int[] brands = new int[count];
+        int[] models = new int[count];
+        int[] types = new int[count];
+        int[] dates = new int[count];
+        int[] defaultCurrencies = new int[count];
+        double[] defaultPrices = new double[count];
+        List<long[]> presence = new ArrayList<>();
+        List<double[]> prices = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            Car car = cars.get(i);
+            brands[i] = intern(strings, car.getBrand());
+            models[i] = intern(strings, car.getModel());
+            types[i] = intern(strings, car.getType());
+            dates[i] = car.getReleaseEpochDay();
+            defaultCurrencies[i] = intern(strings, car.getDefaultCurrency());
+            defaultPrices[i] = car.getDefaultPrice();
+            for (Map.Entry<String, Double> entry : car.getPricesByCurrency().entrySet()) {
+                int column = currencyColumns.computeIfAbsent(entry.getKey(), currency -> {
+                    presence.add(new long[(count + 63) >>> 6]);
+                    prices.add(new double[count]);
+                    return presence.size() - 1;
+                });
+                presence.get(column)[i >>> 6] |= 1L << i;
+                prices.get(column)[i] = entry.getValue();
+            }
+        }
+        for (String currency : currencyColumns.keySet()) {
+            intern(strings, currency);
+        }
+
+        Path temp = tempPath();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            key.write(out);
+
+            out.writeInt(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(count);
+            writeInts(out, brands);
+            writeInts(out, models);
+            writeInts(out, types);
+            writeInts(out, dates);
+            writeInts(out, defaultCurrencies);
+            writeDoubles(out, defaultPrices);
+
+            out.writeInt(currencyColumns.size());
+            int column = 0;
+            for (String currency : currencyColumns.keySet()) {
+                out.writeInt(strings.get(currency));
+                for (long word : presence.get(column)) {
+                    out.writeLong(word);
+                }
+                writeDoubles(out, prices.get(column));
+                column++;
+            }
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path tempPath() {
+        return snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+    }
+
+    private static int intern(Map<String, Integer> strings, String s) {
+        return s == null ? NONE : strings.computeIfAbsent(s, k -> strings.size());
+    }
+
+    private static String lookup(String[] strings, int id) {
+        return id == NONE ? null : strings[id];
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static long[] readLongs(ByteBuffer buffer, int count) {
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        return values;
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int v : values) {
+            out.writeInt(v);
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double v : values) {
+            out.writeDouble(v);
+        }
+    }
+
+    /**
+     * Identity of the two source files the snapshot was built from.
+     */
+    private record SourceKey(long csvSize, long csvModified, long csvHash,
+                             long xmlSize, long xmlModified, long xmlHash) {
+
+        static SourceKey of(Path csvPath, Path xmlPath) throws IOException {
+            return new SourceKey(
+                    Files.size(csvPath), Files.getLastModifiedTime(csvPath).toMillis(), hash(csvPath),
+                    Files.size(xmlPath), Files.getLastModifiedTime(xmlPath).toMillis(), hash(xmlPath));
+        }
+
+        static SourceKey read(ByteBuffer buffer) {
+            return new SourceKey(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                    buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(csvSize);
+            out.writeLong(csvModified);
+            out.writeLong(csvHash);
+            out.writeLong(xmlSize);
+            out.writeLong(xmlModified);
+            out.writeLong(xmlHash);
+        }
+
+        private static long hash(Path path) throws IOException {
+            CRC32C crc = new CRC32C();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                    long length = Math.min(Integer.MAX_VALUE, size - position);
+                    crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                }
+            }
+            return crc.getValue();
+        }
+    }
+}
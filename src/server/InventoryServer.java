@@ -0,0 +1,261 @@
+package src.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import src.models.Car;
+import src.models.InventoryVersion;
+import src.models.OutputFormat;
+import src.models.SearchIndex;
+import src.util.CarSerializer;
+import src.util.ExportUtil;
+import src.util.InventoryQueries;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves inventory queries over HTTP, so one loaded process answers everyone instead of each
+ * client parsing the feeds itself.
+ * <pre>
+ * GET /cars                                              whole inventory
+ * GET /cars/filter?brand=&amp;maxPrice=&amp;currency=&amp;date=|from=&amp;to=   see {@link InventoryQueries#filter}
+ * GET /cars/sort?field=price|date|brand&amp;order=asc|desc&amp;currency=&amp;limit=&amp;offset=
+ * GET /cars/sort-type?TYPE=CURRENCY...&amp;limit=&amp;offset=
+ * GET /cars/complete?prefix=&amp;limit=                       see {@link InventoryQueries#complete}
+ * </pre>
+ * Every car endpoint takes {@code format=json|xml|ndjson|csv|binary|table} (JSON by default); completions
+ * are always a JSON array of {@code text}, {@code field} and {@code cars}. Each request
+ * reads the version current at its start, which is immutable, so requests never lock each other.
+ * Results are streamed with chunked encoding, gzip-compressed when the client accepts it, and
+ * connections are kept alive. Requests run on a virtual thread each when the JVM provides them
+ * (Java 21+), otherwise on a cached thread pool.
+ */
+public final class InventoryServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final String CONTEXT = "/cars";
+    /** Pending connections the OS may queue while all requests are being served. */
+    private static final int BACKLOG = 1024;
+
+    private final Supplier<InventoryVersion> inventory;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param inventory supplies the version to answer each request from, e.g. the current one of a reloader
+     */
+    public InventoryServer(InetSocketAddress address, Supplier<InventoryVersion> inventory) throws IOException {
+        this.inventory = inventory;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.setExecutor(executor);
+        this.server.createContext(CONTEXT, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on, useful when it was created with port 0.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and lets the running ones finish for up to a second.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendError(exchange, 405, "Only GET and HEAD are supported");
+                return;
+            }
+
+            InventoryVersion version = inventory.get();
+            String path = exchange.getRequestURI().getPath();
+
+            OutputFormat outputFormat;
+            List<Car> cars;
+            boolean defaultCurrencyOnly;
+            try {
+                Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                String format = parameters.remove("format");
+                outputFormat = format != null ? InventoryQueries.parseFormat(format) : OutputFormat.JSON;
+                switch (path) {
+                    case CONTEXT, CONTEXT + "/" -> {
+                        if (!parameters.isEmpty()) {
+                            throw new IllegalArgumentException("Unknown parameter: " + parameters.keySet().iterator().next());
+                        }
+                        cars = version.getCars();
+                        defaultCurrencyOnly = false;
+                    }
+                    case CONTEXT + "/filter" -> {
+                        cars = InventoryQueries.filter(version, parameters);
+                        defaultCurrencyOnly = false;
+                    }
+                    case CONTEXT + "/sort" -> {
+                        String field = parameters.remove("field");
+                        String order = parameters.remove("order");
+                        cars = InventoryQueries.sort(version, field, order, parameters);
+                        defaultCurrencyOnly = true;
+                    }
+                    case CONTEXT + "/sort-type" -> {
+                        cars = InventoryQueries.sortByTypeCurrency(version, parameters);
+                        defaultCurrencyOnly = true;
+                    }
+                    case CONTEXT + "/complete" -> {
+                        if (outputFormat != OutputFormat.JSON) {
+                            throw new IllegalArgumentException("Completions are only available as JSON");
+                        }
+                        List<SearchIndex.Completion> completions = InventoryQueries.complete(version, parameters);
+                        send(exchange, OutputFormat.JSON, out -> CarSerializer.writeCompletionsJSON(completions, out));
+                        return;
+                    }
+                    default -> {
+                        sendError(exchange, 404, "Unknown path: " + path);
+                        return;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+
+            send(exchange, outputFormat, out -> ExportUtil.write(cars, outputFormat, defaultCurrencyOnly, out));
+        } catch (RuntimeException e) {
+            // headers may already be sent; closing the exchange then aborts the response
+            if (exchange.getResponseCode() == -1) {
+                sendError(exchange, 500, "Internal error: " + e.getMessage());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(HttpExchange exchange, OutputFormat format, Body body) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", contentType(format));
+        headers.set("Vary", "Accept-Encoding");
+        boolean gzip = acceptsGzip(exchange);
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        // length 0: chunked, the body is streamed as it is serialized
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream response = exchange.getResponseBody();
+        try (OutputStream out = gzip ? new GZIPOutputStream(response, CarSerializer.BUFFER_SIZE) : response) {
+            body.writeTo(out);
+        }
+    }
+
+    /**
+     * Streams a response body.
+     */
+    @FunctionalInterface
+    private interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String contentType(OutputFormat format) {
+        return switch (format) {
+            case JSON -> "application/json; charset=utf-8";
+            case XML -> "application/xml; charset=utf-8";
+            case NDJSON -> "application/x-ndjson; charset=utf-8";
+            case CSV -> "text/csv; charset=utf-8";
+            case BINARY -> "application/octet-stream";
+            case TABLE -> "text/plain; charset=utf-8";
+        };
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        for (String value : exchange.getRequestHeaders().getOrDefault("Accept-Encoding", List.of())) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")
+                        && !(parts.length > 1 && parts[1].replace(" ", "").equals("q=0"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes a query string; names are case-insensitive and the last value of a repeated name wins.
+     *
+     * @throws IllegalArgumentException on malformed escapes
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) continue;
+            int equals = pair.indexOf('=');
+            String name = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Uses a virtual thread per request when available (Java 21+), looked up reflectively so the
+     * server still runs on Java 17, where it falls back to a cached pool of daemon threads.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "inventory-http-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
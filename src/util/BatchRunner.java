@@ -0,0 +1,265 @@
+package src.util;
+
+import src.models.Car;
+import src.models.InventoryVersion;
+import src.models.OutputFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs inventory commands without the interactive menu, for cron jobs and data pipelines.
+ * <p>
+ * Commands come from {@code --command "<command>"} arguments and {@code --script <file>} files
+ * ({@code -} reads standard input), in the order given, one command per line. Blank lines and lines
+ * starting with {@code #} are skipped. All commands run back-to-back against the same loaded version:
+ * <pre>
+ * format table|json|xml|ndjson|csv|binary
+ * view
+ * filter [brand=NAME] [search=TEXT] [maxPrice=N] [currency=CODE] [date=YYYY-MM-DD] [from=YYYY-MM-DD] [to=YYYY-MM-DD]
+ * sort price|date|brand [asc|desc] [currency=CODE] [limit=N] [offset=N]
+ * sort-type TYPE=CURRENCY... [limit=N] [offset=N]
+ * </pre>
+ * Values with spaces are double-quoted. Results go to standard output in the current format
+ * ({@code --format}, table by default), or to a file with a trailing {@code > PATH}, gzip-compressed
+ * when it ends with {@value ExportUtil#GZIP_SUFFIX}. Errors go to standard error; a failing command
+ * does not stop the others, but the run then ends with {@link #EXIT_FAILED}.
+ */
+public final class BatchRunner {
+
+    public static final int EXIT_OK = 0;
+    /** At least one command failed. */
+    public static final int EXIT_FAILED = 1;
+    /** Invalid arguments or unreadable script. */
+    public static final int EXIT_USAGE = 2;
+    /** The inventory feeds could not be loaded. */
+    public static final int EXIT_LOAD_FAILED = 3;
+
+    public static final String COMMAND_ARG = "--command";
+    public static final String SCRIPT_ARG = "--script";
+    public static final String FORMAT_ARG = "--format";
+    private static final String STDIN = "-";
+
+    /**
+     * A single command, or a script to read commands from.
+     */
+    private record Source(boolean script, String value) {
+    }
+
+    private final List<Source> sources;
+    private OutputFormat format;
+    private int failures;
+
+    private BatchRunner(List<Source> sources, OutputFormat format) {
+        this.sources = sources;
+        this.format = format;
+    }
+
+    /**
+     * Tells whether the arguments ask for a batch run instead of the interactive menu.
+     */
+    public static boolean isBatch(String[] args) {
+        for (String arg : args) {
+            if (arg.equals(COMMAND_ARG) || arg.startsWith(COMMAND_ARG + "=")
+                    || arg.equals(SCRIPT_ARG) || arg.startsWith(SCRIPT_ARG + "=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the batch arguments; other arguments are left to the caller.
+     *
+     * @throws IllegalArgumentException if a batch argument has no or an invalid value
+     */
+    public static BatchRunner fromArgs(String[] args) {
+        List<Source> sources = new ArrayList<>();
+        OutputFormat format = OutputFormat.TABLE;
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            String value = null;
+            int equals = name.indexOf('=');
+            if (name.startsWith("--") && equals > 0) {
+                value = name.substring(equals + 1);
+                name = name.substring(0, equals);
+            }
+            if (!name.equals(COMMAND_ARG) && !name.equals(SCRIPT_ARG) && !name.equals(FORMAT_ARG)) {
+                continue;
+            }
+            if (value == null) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                value = args[++i];
+            }
+            switch (name) {
+                case COMMAND_ARG -> sources.add(new Source(false, value));
+                case SCRIPT_ARG -> sources.add(new Source(true, value));
+                default -> format = InventoryQueries.parseFormat(value);
+            }
+        }
+        return new BatchRunner(sources, format);
+    }
+
+    /**
+     * Runs every command against the given version.
+     *
+     * @return {@link #EXIT_OK}, {@link #EXIT_FAILED} or {@link #EXIT_USAGE}
+     */
+    public int run(InventoryVersion version) {
+        for (Source source : sources) {
+            if (!source.script()) {
+                runLine(version, source.value(), COMMAND_ARG);
+                continue;
+            }
+            try (BufferedReader reader = openScript(source.value())) {
+                String line;
+                int number = 0;
+                while ((line = reader.readLine()) != null) {
+                    runLine(version, line, source.value() + ":" + ++number);
+                }
+            } catch (IOException e) {
+                System.err.println("Error: cannot read script " + source.value() + ": " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+        return failures == 0 ? EXIT_OK : EXIT_FAILED;
+    }
+
+    private static BufferedReader openScript(String script) throws IOException {
+        return script.equals(STDIN)
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Path.of(script));
+    }
+
+    private void runLine(InventoryVersion version, String line, String location) {
+        String command = line.strip();
+        if (command.isEmpty() || command.startsWith("#")) {
+            return;
+        }
+        try {
+            execute(version, tokenize(command));
+        } catch (IOException | RuntimeException e) {
+            failures++;
+            System.err.println("Error at " + location + ": " + e.getMessage());
+        }
+    }
+
+    private void execute(InventoryVersion version, List<String> tokens) throws IOException {
+        Path target = null;
+        int redirect = tokens.indexOf(">");
+        if (redirect >= 0) {
+            if (redirect != tokens.size() - 2) {
+                throw new IllegalArgumentException("Expected one file path after >");
+            }
+            target = Path.of(tokens.get(redirect + 1));
+            tokens = tokens.subList(0, redirect);
+        }
+        expect(!tokens.isEmpty(), "Missing command");
+
+        String name = tokens.get(0).toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String token : tokens.subList(1, tokens.size())) {
+            int equals = token.indexOf('=');
+            if (equals > 0) {
+                options.put(token.substring(0, equals), token.substring(equals + 1));
+            } else {
+                words.add(token);
+            }
+        }
+
+        switch (name) {
+            case "format" -> {
+                expect(words.size() == 1 && options.isEmpty(), "Usage: format table|json|xml|ndjson|csv|binary");
+                format = InventoryQueries.parseFormat(words.get(0));
+            }
+            case "view" -> {
+                expect(words.isEmpty() && options.isEmpty(), "Usage: view");
+                write(version.getCars(), false, target);
+            }
+            case "filter" -> write(filter(version, words, options), false, target);
+            case "sort" -> write(sort(version, words, options), true, target);
+            case "sort-type" -> write(sortByTypeCurrency(version, words, options), true, target);
+            default -> throw new IllegalArgumentException("Unknown command: " + name);
+        }
+    }
+
+    private static List<Car> filter(InventoryVersion version, List<String> words, Map<String, String> options) {
+        expect(words.isEmpty(), "Usage: filter [brand=NAME] [search=TEXT] [maxPrice=N] [currency=CODE] [date=YYYY-MM-DD] [from=YYYY-MM-DD] [to=YYYY-MM-DD]");
+        return InventoryQueries.filter(version, options);
+    }
+
+    private static List<Car> sort(InventoryVersion version, List<String> words, Map<String, String> options) {
+        expect(!words.isEmpty() && words.size() <= 2, "Usage: sort price|date|brand [asc|desc] [currency=CODE] [limit=N] [offset=N]");
+        return InventoryQueries.sort(version, words.get(0), words.size() == 2 ? words.get(1) : null, options);
+    }
+
+    private static List<Car> sortByTypeCurrency(InventoryVersion version, List<String> words, Map<String, String> options) {
+        expect(words.isEmpty() && !options.isEmpty(), "Usage: sort-type TYPE=CURRENCY... [limit=N] [offset=N]");
+        return InventoryQueries.sortByTypeCurrency(version, options);
+    }
+
+    private void write(List<Car> cars, boolean defaultCurrencyOnly, Path target) throws IOException {
+        if (target != null) {
+            ExportUtil.export(cars, format, defaultCurrencyOnly, target);
+            return;
+        }
+        ExportUtil.write(cars, format, defaultCurrencyOnly, System.out);
+        if (format == OutputFormat.JSON || format == OutputFormat.XML) {
+            // documents end without a line break; keep consecutive results apart
+            System.out.println();
+        }
+        System.out.flush();
+        if (System.out.checkError()) {
+            throw new UncheckedIOException(new IOException("Cannot write to standard output"));
+        }
+    }
+
+    /**
+     * Splits a command on whitespace; double quotes group characters, including spaces, into one token.
+     */
+    private static List<String> tokenize(String command) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        expect(!quoted, "Unterminated quote");
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package src.util;
+
+import src.models.Car;
+import src.models.CurrencyRegistry;
+import src.models.SearchIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming serializers: JSON and XML producing the same documents as {@link ViewFormatter#toJSON}
+ * and {@link ViewFormatter#toXML}, plus NDJSON, CSV and a length-prefixed binary format for
+ * downstream consumers that read the output record by record.
+ * <p>
+ * Cars are written one by one through a fixed-size buffer, so output starts immediately and no
+ * copy of the whole document is built in memory.
+ * Byte targets are written as UTF-8. Targets are flushed but never closed.
+ */
+public final class CarSerializer {
+
+    public static final int BUFFER_SIZE = 1 << 13;
+    /** First bytes of a {@link #writeBinary binary} document. */
+    public static final byte[] BINARY_MAGIC = {'C', 'A', 'R', 'B'};
+    public static final int BINARY_VERSION = 1;
+    /** Flag bit set when binary records hold the default price and currency only. */
+    public static final int BINARY_DEFAULT_CURRENCY = 1;
+
+    private CarSerializer() {
+    }
+
+    /**
+     * @param defaultCurrencyOnly writes the default price and currency instead of every currency price
+     */
+    public static void writeJSON(Iterable<Car> cars, boolean defaultCurrencyOnly, Writer out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(out, BUFFER_SIZE);
+        writer.write("[\n");
+        Iterator<Car> iterator = cars.iterator();
+        while (iterator.hasNext()) {
+            Car car = iterator.next();
+            writer.write("  {\n");
+            writeJsonField(writer, "brand", car.getBrand());
+            writeJsonField(writer, "model", car.getModel());
+            writeJsonField(writer, "type", car.getType());
+
+            if (defaultCurrencyOnly) {
+                writer.write("    \"price\": ");
+                writer.write(Double.toString(car.getDefaultPrice()));
+                writer.write(",\n");
+                writeJsonField(writer, "currency", car.getDefaultCurrency());
+            } else {
+                writer.write("    \"price in different currencies\": {\n");
+                Map<String, Double> prices = car.getPricesByCurrency();
+                int count = 0;
+                for (Map.Entry<String, Double> entry : prices.entrySet()) {
+                    writer.write("      \"");
+                    escapeJson(writer, entry.getKey());
+                    writer.write("\": ");
+                    writer.write(Double.toString(entry.getValue()));
+                    if (++count < prices.size()) writer.write(',');
+                    writer.write('\n');
+                }
+                writer.write("    },\n");
+            }
+
+            writer.write("    \"releaseDate\": ");
+            if (car.hasReleaseDate()) {
+                writer.write('"');
+                writer.write(car.getReleaseDate().toString());
+                writer.write('"');
+            } else {
+                writer.write("null");
+            }
+            writer.write("\n  }");
+            if (iterator.hasNext()) writer.write(',');
+            writer.write('\n');
+        }
+        writer.write(']');
+        writer.flush();
+    }
+
+    public static void writeJSON(Iterable<Car> cars, boolean defaultCurrencyOnly, OutputStream out) throws IOException {
+        writeJSON(cars, defaultCurrencyOnly, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public static void writeJSON(Iterable<Car> cars, boolean defaultCurrencyOnly, WritableByteChannel out) throws IOException {
+        writeJSON(cars, defaultCurrencyOnly, Channels.newWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param defaultCurrencyOnly writes the default price and currency instead of every currency price
+     */
+    public static void writeXML(Iterable<Car> cars, boolean defaultCurrencyOnly, Writer out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(out, BUFFER_SIZE);
+        writer.write("<cars>\n");
+        for (Car car : cars) {
+            writer.write("  <car>\n");
+            writeXmlElement(writer, "brand", car.getBrand());
+            writeXmlElement(writer, "model", car.getModel());
+            writeXmlElement(writer, "type", car.getType());
+
+            if (defaultCurrencyOnly) {
+                writer.write("    <price>");
+                writer.write(String.format("%.2f", car.getDefaultPrice()));
+                writer.write("</price>\n");
+                writeXmlElement(writer, "currency", car.getDefaultCurrency());
+            } else {
+                writer.write("    <pricesInDifferentCurrencies>\n");
+                for (Map.Entry<String, Double> entry : car.getPricesByCurrency().entrySet()) {
+                    writer.write("      <price currency=\"");
+                    escapeXml(writer, entry.getKey());
+                    writer.write("\">");
+                    writer.write(String.format("%.2f", entry.getValue()));
+                    writer.write("</price>\n");
+                }
+                writer.write("    </pricesInDifferentCurrencies>\n");
+            }
+
+            if (car.hasReleaseDate()) {
+                writer.write("    <releaseDate>");
+                writer.write(car.getReleaseDate().toString());
+                writer.write("</releaseDate>\n");
+            }
+            writer.write("  </car>\n");
+        }
+        writer.write("</cars>");
+        writer.flush();
+    }
+
+    public static void writeXML(Iterable<Car> cars, boolean defaultCurrencyOnly, OutputStream out) throws IOException {
+        writeXML(cars, defaultCurrencyOnly, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public static void writeXML(Iterable<Car> cars, boolean defaultCurrencyOnly, WritableByteChannel out) throws IOException {
+        writeXML(cars, defaultCurrencyOnly, Channels.newWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes one compact JSON object per line (NDJSON), with the fields of {@link #writeJSON}.
+     * Every line is a complete document, so consumers can split and parse the output in a stream.
+     *
+     * @param defaultCurrencyOnly writes the default price and currency instead of every currency price
+     */
+    public static void writeNDJSON(Iterable<Car> cars, boolean defaultCurrencyOnly, Writer out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(out, BUFFER_SIZE);
+        for (Car car : cars) {
+            writer.write("{\"brand\":");
+            writeJsonString(writer, car.getBrand());
+            writer.write(",\"model\":");
+            writeJsonString(writer, car.getModel());
+            writer.write(",\"type\":");
+            writeJsonString(writer, car.getType());
+
+            if (defaultCurrencyOnly) {
+                writer.write(",\"price\":");
+                writeJsonNumber(writer, car.getDefaultPrice());
+                writer.write(",\"currency\":");
+                writeJsonString(writer, car.getDefaultCurrency());
+            } else {
+                writer.write(",\"price in different currencies\":{");
+                boolean first = true;
+                for (int currencyId = 0; currencyId < car.currencySlots(); currencyId++) {
+                    if (!car.hasPrice(currencyId)) continue;
+                    if (!first) writer.write(',');
+                    first = false;
+                    writeJsonString(writer, CurrencyRegistry.code(currencyId));
+                    writer.write(':');
+                    writeJsonNumber(writer, car.priceIn(currencyId));
+                }
+                writer.write('}');
+            }
+
+            writer.write(",\"releaseDate\":");
+            writeJsonString(writer, car.hasReleaseDate() ? car.getReleaseDate().toString() : null);
+            writer.write("}\n");
+        }
+        writer.flush();
+    }
+
+    public static void writeNDJSON(Iterable<Car> cars, boolean defaultCurrencyOnly, OutputStream out) throws IOException {
+        writeNDJSON(cars, defaultCurrencyOnly, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public static void writeNDJSON(Iterable<Car> cars, boolean defaultCurrencyOnly, WritableByteChannel out) throws IOException {
+        writeNDJSON(cars, defaultCurrencyOnly, Channels.newWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes an RFC 4180 CSV document with a header line. With every currency, there is one
+     * {@code price_<code>} column per registered currency, empty where a car has no price; otherwise
+     * the columns are {@code price} and {@code currency}. Missing release dates are empty cells.
+     *
+     * @param defaultCurrencyOnly writes the default price and currency instead of every currency price
+     */
+    public static void writeCSV(Iterable<Car> cars, boolean defaultCurrencyOnly, Writer out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(out, BUFFER_SIZE);
+        int currencies = CurrencyRegistry.count();
+        writer.write("brand,model,type");
+        if (defaultCurrencyOnly) {
+            writer.write(",price,currency");
+        } else {
+            for (int currencyId = 0; currencyId < currencies; currencyId++) {
+                writer.write(',');
+                writeCsvCell(writer, "price_" + CurrencyRegistry.code(currencyId));
+            }
+        }
+        writer.write(",releaseDate\r\n");
+
+        for (Car car : cars) {
+            writeCsvCell(writer, car.getBrand());
+            writer.write(',');
+            writeCsvCell(writer, car.getModel());
+            writer.write(',');
+            writeCsvCell(writer, car.getType());
+            if (defaultCurrencyOnly) {
+                writer.write(',');
+                writer.write(Double.toString(car.getDefaultPrice()));
+                writer.write(',');
+                writeCsvCell(writer, car.getDefaultCurrency());
+            } else {
+                for (int currencyId = 0; currencyId < currencies; currencyId++) {
+                    writer.write(',');
+                    if (car.hasPrice(currencyId)) writer.write(Double.toString(car.priceIn(currencyId)));
+                }
+            }
+            writer.write(',');
+            if (car.hasReleaseDate()) writer.write(car.getReleaseDate().toString());
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    public static void writeCSV(Iterable<Car> cars, boolean defaultCurrencyOnly, OutputStream out) throws IOException {
+        writeCSV(cars, defaultCurrencyOnly, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public static void writeCSV(Iterable<Car> cars, boolean defaultCurrencyOnly, WritableByteChannel out) throws IOException {
+        writeCSV(cars, defaultCurrencyOnly, Channels.newWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a compact binary document for machine-to-machine transfer. All numbers are big-endian:
+     * <pre>
+     * document := "CARB" version:u8 flags:u8 record*
+     * record   := length:i32 (bytes that follow) brand:str model:str type:str releaseEpochDay:i32 prices
+     * prices   := price:f64 currency:str                  (flags has {@link #BINARY_DEFAULT_CURRENCY})
+     *           | count:u16 (currency:str price:f64)*     (otherwise)
+     * str      := length:i32 (-1 for null) UTF-8 bytes
+     * </pre>
+     * A missing release date is {@link Car#NO_RELEASE_DATE}. The document ends at the end of the stream;
+     * readers can skip a record, or a newer version's trailing fields, with its length prefix.
+     *
+     * @param defaultCurrencyOnly writes the default price and currency instead of every currency price
+     */
+    public static void writeBinary(Iterable<Car> cars, boolean defaultCurrencyOnly, OutputStream out) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        output.write(BINARY_MAGIC);
+        output.writeByte(BINARY_VERSION);
+        output.writeByte(defaultCurrencyOnly ? BINARY_DEFAULT_CURRENCY : 0);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(buffer);
+        for (Car car : cars) {
+            buffer.reset();
+            writeBinaryString(record, car.getBrand());
+            writeBinaryString(record, car.getModel());
+            writeBinaryString(record, car.getType());
+            record.writeInt(car.getReleaseEpochDay());
+            if (defaultCurrencyOnly) {
+                record.writeDouble(car.getDefaultPrice());
+                writeBinaryString(record, car.getDefaultCurrency());
+            } else {
+                int count = 0;
+                for (int currencyId = 0; currencyId < car.currencySlots(); currencyId++) {
+                    if (car.hasPrice(currencyId)) count++;
+                }
+                record.writeShort(count);
+                for (int currencyId = 0; currencyId < car.currencySlots(); currencyId++) {
+                    if (!car.hasPrice(currencyId)) continue;
+                    writeBinaryString(record, CurrencyRegistry.code(currencyId));
+                    record.writeDouble(car.priceIn(currencyId));
+                }
+            }
+            output.writeInt(buffer.size());
+            buffer.writeTo(output);
+        }
+        output.flush();
+    }
+
+    public static void writeBinary(Iterable<Car> cars, boolean defaultCurrencyOnly, WritableByteChannel out) throws IOException {
+        writeBinary(cars, defaultCurrencyOnly, Channels.newOutputStream(out));
+    }
+
+    /**
+     * Writes autocomplete suggestions as one compact JSON array of {@code text}, {@code field} and
+     * {@code cars} objects.
+     */
+    public static void writeCompletionsJSON(List<SearchIndex.Completion> completions, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write('[');
+        for (int i = 0; i < completions.size(); i++) {
+            SearchIndex.Completion completion = completions.get(i);
+            if (i > 0) writer.write(',');
+            writer.write("{\"text\":");
+            writeJsonString(writer, completion.text());
+            writer.write(",\"field\":\"");
+            writer.write(completion.field().label());
+            writer.write("\",\"cars\":");
+            writer.write(Integer.toString(completion.cars()));
+            writer.write('}');
+        }
+        writer.write("]\n");
+        writer.flush();
+    }
+
+    private static void writeJsonField(Writer writer, String name, String value) throws IOException {
+        writer.write("    \"");
+        writer.write(name);
+        writer.write("\": \"");
+        escapeJson(writer, value);
+        writer.write("\",\n");
+    }
+
+    private static void writeXmlElement(Writer writer, String name, String value) throws IOException {
+        writer.write("    <");
+        writer.write(name);
+        writer.write('>');
+        escapeXml(writer, value);
+        writer.write("</");
+        writer.write(name);
+        writer.write(">\n");
+    }
+
+    private static void escapeXml(Writer writer, String s) throws IOException {
+        if (s == null) return;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&' -> writer.write("&amp;");
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                case '"' -> writer.write("&quot;");
+                case '\'' -> writer.write("&apos;");
+                default -> writer.write(c);
+            }
+        }
+    }
+
+    private static void escapeJson(Writer writer, String s) throws IOException {
+        if (s == null) return;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        escapeJson(writer, value);
+        writer.write('"');
+    }
+
+    /**
+     * JSON has no NaN or infinity; such prices are written as null.
+     */
+    private static void writeJsonNumber(Writer writer, double value) throws IOException {
+        writer.write(Double.isFinite(value) ? Double.toString(value) : "null");
+    }
+
+    private static void writeCsvCell(Writer writer, String value) throws IOException {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static void writeBinaryString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
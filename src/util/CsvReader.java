@@ -1,5 +1,8 @@
 package src.util;
 
+import src.metrics.Metrics;
+import src.metrics.Phase;
+
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
@@ -24,6 +27,7 @@ public final class CsvReader {
      * @throws IOException if file reading fails
      */
     public static List<List<String>> read(Path path) throws IOException {
+        long start = System.nanoTime();
         List<List<String>> records = new ArrayList<>();
 
         try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
@@ -38,6 +42,7 @@ public final class CsvReader {
             }
         }
 
+        Metrics.record(Phase.CSV_READ, start, records.size(), records.size());
         return records;
     }
 
@@ -1,13 +1,25 @@
 package src.util;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public final class DateFormatter {
 
     private static final DateTimeFormatter XML_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
 
+    private static final int DATE_LENGTH = 10;
+    private static final long DAYS_0000_TO_1970 = 719528L;
+
+    /**
+     * Direct-mapped memo of recently parsed dates: feeds reuse a small set of release dates.
+     * Each slot packs the yyyyMMdd key in the high half and the epoch day in the low half.
+     */
+    private static final int MEMO_SIZE = 1024;
+    private static final AtomicLongArray MEMO = new AtomicLongArray(MEMO_SIZE);
+
     private DateFormatter() {
     }
 
@@ -22,6 +34,120 @@ public final class DateFormatter {
         if (date == null || date.isBlank()) {
             throw new IllegalArgumentException("Date string cannot be null or empty");
         }
-        return LocalDate.parse(date.trim(), XML_FORMAT);
+        return LocalDate.ofEpochDay(parseEpochDay(date, 0, date.length()));
+    }
+
+    /**
+     * Parses an MM/dd/yyyy date found between {@code from} and {@code to} into an epoch day,
+     * without allocating for well-formed input. Surrounding whitespace is ignored; anything
+     * unusual is handed over to the {@link DateTimeFormatter}, which keeps its exact semantics.
+     *
+     * @throws DateTimeParseException if the input cannot be parsed
+     */
+    public static int parseEpochDay(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') from++;
+        while (to > from && text.charAt(to - 1) <= ' ') to--;
+        if (from == to) {
+            throw new IllegalArgumentException("Date string cannot be null or empty");
+        }
+
+        if (to - from == DATE_LENGTH && text.charAt(from + 2) == '/' && text.charAt(from + 5) == '/') {
+            int month = digits(text.charAt(from), text.charAt(from + 1));
+            int day = digits(text.charAt(from + 3), text.charAt(from + 4));
+            int year = digits(text.charAt(from + 6), text.charAt(from + 7)) * 100
+                    + digits(text.charAt(from + 8), text.charAt(from + 9));
+            int epochDay = toEpochDay(year, month, day);
+            if (epochDay != Integer.MIN_VALUE) {
+                return epochDay;
+            }
+        }
+        return slowPath(text.subSequence(from, to).toString());
+    }
+
+    /**
+     * Byte-level variant of {@link #parseEpochDay(CharSequence, int, int)} for ASCII input,
+     * e.g. a field slice handed out by {@link MappedCsvReader}.
+     *
+     * @throws DateTimeParseException if the input cannot be parsed
+     */
+    public static int parseEpochDay(ByteBuffer buffer, int offset, int length) {
+        int from = offset;
+        int to = offset + length;
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') from++;
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') to--;
+        if (from == to) {
+            throw new IllegalArgumentException("Date string cannot be null or empty");
+        }
+
+        if (to - from == DATE_LENGTH && buffer.get(from + 2) == '/' && buffer.get(from + 5) == '/') {
+            int month = digits(buffer.get(from), buffer.get(from + 1));
+            int day = digits(buffer.get(from + 3), buffer.get(from + 4));
+            int year = digits(buffer.get(from + 6), buffer.get(from + 7)) * 100
+                    + digits(buffer.get(from + 8), buffer.get(from + 9));
+            int epochDay = toEpochDay(year, month, day);
+            if (epochDay != Integer.MIN_VALUE) {
+                return epochDay;
+            }
+        }
+        return slowPath(MappedCsvReader.decode(buffer, from, to - from));
+    }
+
+    private static int slowPath(String date) {
+        return Math.toIntExact(LocalDate.parse(date, XML_FORMAT).toEpochDay());
+    }
+
+    /**
+     * Returns the two-digit value, or a negative number if either char is not a digit.
+     */
+    private static int digits(int tens, int units) {
+        int t = tens - '0';
+        int u = units - '0';
+        if (t < 0 || t > 9 || u < 0 || u > 9) {
+            return -10_000;
+        }
+        return t * 10 + u;
+    }
+
+    /**
+     * Validates and converts a date, going through the memo first.
+     * Returns {@link Integer#MIN_VALUE} when the slow path must decide (bad digits,
+     * out-of-range fields, or days the formatter would resolve itself).
+     */
+    private static int toEpochDay(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        int key = year * 10_000 + month * 100 + day;
+        int slot = (key ^ (key >>> 10)) & (MEMO_SIZE - 1);
+        long entry = MEMO.get(slot);
+        if ((int) (entry >>> 32) == key) {
+            return (int) entry;
+        }
+
+        long y = year;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        int epochDay = (int) (total - DAYS_0000_TO_1970);
+        MEMO.set(slot, ((long) key << 32) | (epochDay & 0xFFFFFFFFL));
+        return epochDay;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
     }
 }
@@ -0,0 +1,117 @@
+package src.util;
+
+import src.metrics.Metrics;
+import src.metrics.Phase;
+import src.models.Car;
+import src.models.InventoryVersion;
+import src.models.OutputFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.zip.GZIPOutputStream;
+
+public final class ExportUtil {
+
+    /** Export files with this suffix are gzip-compressed. */
+    public static final String GZIP_SUFFIX = ".gz";
+
+    private ExportUtil() {
+    }
+
+    /**
+     * Writes cars in the given format to a stream, which is flushed but not closed.
+     * Text formats are UTF-8.
+     *
+     * @param defaultCurrencyOnly writes the default price and currency instead of every currency price
+     */
+    public static void write(List<Car> cars, OutputFormat format, boolean defaultCurrencyOnly, OutputStream out)
+            throws IOException {
+        long start = System.nanoTime();
+        switch (format) {
+            case TABLE -> {
+                TableRenderer renderer = new TableRenderer(out, StandardCharsets.UTF_8);
+                if (defaultCurrencyOnly) {
+                    renderer.renderDefaultCurrency(cars);
+                } else {
+                    renderer.renderAllCurrencies(cars);
+                }
+            }
+            case JSON -> CarSerializer.writeJSON(cars, defaultCurrencyOnly, out);
+            case XML -> CarSerializer.writeXML(cars, defaultCurrencyOnly, out);
+            case NDJSON -> CarSerializer.writeNDJSON(cars, defaultCurrencyOnly, out);
+            case CSV -> CarSerializer.writeCSV(cars, defaultCurrencyOnly, out);
+            case BINARY -> CarSerializer.writeBinary(cars, defaultCurrencyOnly, out);
+        }
+        Metrics.record(Phase.RENDER, start, cars.size(), cars.size());
+    }
+
+    /**
+     * Writes cars in the given format to a file, replacing it, optionally gzip-compressed.
+     */
+    public static void export(List<Car> cars, OutputFormat format, boolean defaultCurrencyOnly, Path path, boolean gzip)
+            throws IOException {
+        try (OutputStream file = Files.newOutputStream(path);
+             OutputStream out = gzip ? new GZIPOutputStream(file, CarSerializer.BUFFER_SIZE) : file) {
+            write(cars, format, defaultCurrencyOnly, out);
+        }
+    }
+
+    /**
+     * Writes cars in the given format to a file, replacing it; names ending with {@value #GZIP_SUFFIX}
+     * are gzip-compressed.
+     */
+    public static void export(List<Car> cars, OutputFormat format, boolean defaultCurrencyOnly, Path path)
+            throws IOException {
+        export(cars, format, defaultCurrencyOnly, path, isGzip(path.toString()));
+    }
+
+    /**
+     * Asks for a format and a file path, then exports the whole inventory.
+     * Paths ending with {@value #GZIP_SUFFIX} are compressed.
+     */
+    public static void exportInventory(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
+        OutputFormat format = readFormat(scanner, outputFormat);
+
+        String fileName;
+        do {
+            PrintUtil.print("Enter file path (end with " + GZIP_SUFFIX + " to compress): ");
+            fileName = scanner.nextLine().trim();
+        } while (fileName.isEmpty());
+
+        boolean gzip = isGzip(fileName);
+        List<Car> cars = inventory.getCars();
+        try {
+            export(cars, format, false, Path.of(fileName), gzip);
+            PrintUtil.printSuccess("Exported " + cars.size() + " cars to " + fileName + " as " + format
+                    + (gzip ? " (gzip)" : ""));
+        } catch (IOException | RuntimeException e) {
+            PrintUtil.printError("Could not export to " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isGzip(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(GZIP_SUFFIX);
+    }
+
+    private static OutputFormat readFormat(Scanner scanner, OutputFormat defaultFormat) {
+        while (true) {
+            PrintUtil.print("Enter export format: Table | Json | Xml | Ndjson | Csv | Binary (press Enter for "
+                    + defaultFormat + "): ");
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return defaultFormat;
+            }
+            try {
+                return OutputFormat.valueOf(input.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                PrintUtil.printError("Invalid input, valid inputs are: Table, Json, Xml, Ndjson, Csv, Binary");
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package src.util;
 
+import src.metrics.Metrics;
+import src.metrics.Phase;
 import src.models.Car;
+import src.models.Inventory;
+import src.models.InventoryVersion;
 import src.models.OutputFormat;
+import src.models.SearchIndex;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -11,6 +16,9 @@ import java.util.stream.Collectors;
 
 public final class FilterUtil {
 
+    /** Completions offered when an interactive search finds nothing. */
+    private static final int SUGGESTIONS = 5;
+
     private FilterUtil() {
     }
 
@@ -22,64 +30,196 @@ public final class FilterUtil {
         Predicate<Car> brandPredicate = car -> brand == null ||
                 (car.getBrand() != null && car.getBrand().equalsIgnoreCase(brand));
 
-        Predicate<Car> pricePredicate = car -> maxPrice == null ||
-                car.getPricesByCurrency().values().stream().anyMatch(price -> price <= maxPrice);
+        Predicate<Car> pricePredicate = car -> maxPrice == null || anyPriceAtMost(car, maxPrice);
 
+        int releaseEpochDay = releaseDate != null ? Math.toIntExact(releaseDate.toEpochDay()) : Car.NO_RELEASE_DATE;
         Predicate<Car> datePredicate = car -> releaseDate == null ||
-                releaseDate.equals(car.getReleaseDate());
+                car.getReleaseEpochDay() == releaseEpochDay;
 
         return cars.stream()
                 .filter(brandPredicate.and(pricePredicate).and(datePredicate))
                 .collect(Collectors.toList());
     }
 
-    public static void filterInventory(Scanner scanner, List<Car> allCars, OutputFormat outputFormat) {
+    /**
+     * Columnar variant of {@link #filter(List, String, Double, LocalDate)}: the predicates run on the
+     * inventory columns and car views are only created for the matching rows.
+     */
+    public static List<Car> filter(Inventory inventory, String brand, Double maxPrice, LocalDate releaseDate) {
+        return inventory.cars(inventory.filter(brand, maxPrice, releaseDate));
+    }
+
+    /**
+     * Indexed variant of {@link #filter(Inventory, String, Double, LocalDate)} taking a release date range
+     * (both bounds inclusive, null for open-ended). The most selective index drives the lookup and the
+     * other criteria are checked on the matching rows only. Results are kept in the {@link QueryCache}.
+     * With exchange rates, {@code maxPrice} is in the base currency, see
+     * {@link #filter(InventoryVersion, String, Double, String, LocalDate, LocalDate)}.
+     */
+    public static List<Car> filter(InventoryVersion version, String brand, Double maxPrice,
+                                   LocalDate releasedFrom, LocalDate releasedTo) {
+        return filter(version, brand, maxPrice, null, releasedFrom, releasedTo);
+    }
+
+    /**
+     * Variant of {@link #filter(InventoryVersion, String, Double, LocalDate, LocalDate)} with the currency
+     * of {@code maxPrice}: a car matches when its price in that currency, quoted or converted with the
+     * version's exchange rates, is lower or equal. Each row is checked with one comparison on a cached
+     * price column.
+     *
+     * @param currency currency of {@code maxPrice}; null for the base currency of the rates or,
+     *                 without rates, for matching any quoted price
+     * @throws IllegalArgumentException if no car quotes the currency and it has no exchange rate
+     */
+    public static List<Car> filter(InventoryVersion version, String brand, Double maxPrice, String currency,
+                                   LocalDate releasedFrom, LocalDate releasedTo) {
+        return filter(version, brand, null, maxPrice, currency, releasedFrom, releasedTo);
+    }
+
+    /**
+     * Variant of {@link #filter(InventoryVersion, String, Double, String, LocalDate, LocalDate)} that also
+     * matches brand or model text through the version's {@link SearchIndex}: {@code "Merc"} finds values
+     * containing it, {@code "Toy*"} values starting with it, both ignoring case.
+     *
+     * @param search brand or model text, or null
+     * @throws IllegalArgumentException if the search has no text
+     */
+    public static List<Car> filter(InventoryVersion version, String brand, String search, Double maxPrice,
+                                   String currency, LocalDate releasedFrom, LocalDate releasedTo) {
+        long start = System.nanoTime();
+        int from = toEpochDay(releasedFrom);
+        int to = toEpochDay(releasedTo);
+        String priceCurrency = currency != null ? currency : version.getExchangeRates().baseCurrency();
+        double[] priceColumn = maxPrice != null && priceCurrency != null
+                ? version.getInventory().converter().column(priceCurrency)
+                : null;
+        QueryCache.Query query = QueryCache.Query.filter(brand, search, maxPrice,
+                priceColumn != null ? priceCurrency : null, from, to);
+        int[] rows = QueryCache.shared().rows(version, query, () -> {
+            int[] searchRows = search != null ? version.getSearchIndex().rows(search) : null;
+            return version.getIndex().filter(brand, maxPrice, priceColumn, searchRows, from, to);
+        });
+        List<Car> cars = version.getInventory().cars(rows);
+        Metrics.recordQuery(Phase.FILTER, start, version.getVersion(), cars.size());
+        return cars;
+    }
+
+    public static void filterInventory(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
         while (true) {
             PrintUtil.println("Filter Options:");
             PrintUtil.println("1. Filter by Brand and Price");
             PrintUtil.println("2. Filter by Brand and Release Date");
+            PrintUtil.println("3. Filter by Brand and Release Date Range");
+            PrintUtil.println("4. Search Brand or Model");
             PrintUtil.print("Enter choice: ");
             String choice = scanner.nextLine().trim();
 
             switch (choice) {
                 case "1" -> {
-                    filterByBrandAndPrice(scanner, allCars, outputFormat);
+                    filterByBrandAndPrice(scanner, inventory, outputFormat);
                     return;
                 }
                 case "2" -> {
-                    filterByBrandAndReleaseDate(scanner, allCars, outputFormat);
+                    filterByBrandAndReleaseDate(scanner, inventory, outputFormat);
                     return;
                 }
-                default -> PrintUtil.printError("Invalid input, valid inputs are: 1 or 2");
+                case "3" -> {
+                    filterByBrandAndReleaseDateRange(scanner, inventory, outputFormat);
+                    return;
+                }
+                case "4" -> {
+                    searchBrandOrModel(scanner, inventory, outputFormat);
+                    return;
+                }
+                default -> PrintUtil.printError("Invalid input, valid inputs are: 1, 2, 3 or 4");
             }
         }
     }
 
-    private static void filterByBrandAndPrice(Scanner scanner, List<Car> allCars, OutputFormat outputFormat) {
+    private static void filterByBrandAndPrice(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
         PrintUtil.print("Input Brand: ");
         String brand = scanner.nextLine().trim();
 
+        String baseCurrency = inventory.getExchangeRates().baseCurrency();
+        String prompt = baseCurrency != null
+                ? "Input Max Price in " + baseCurrency + ", or followed by a currency (e.g. 30000 EUR): "
+                : "Input Max Price: ";
         Double price = null;
+        String currency = null;
         while (price == null) {
-            PrintUtil.print("Input Max Price: ");
-            String input = scanner.nextLine().trim();
-            price = parseDoubleInput(input);
+            PrintUtil.print(prompt);
+            String[] parts = scanner.nextLine().trim().split("\\s+");
+            price = parts.length <= 2 ? parseDoubleInput(parts[0]) : null;
+            currency = parts.length == 2 ? parts[1] : null;
             if (price == null) {
                 PrintUtil.printError("Invalid price input, please enter a valid number.");
+            } else if (currency != null && !inventory.getInventory().converter().supports(currency)) {
+                PrintUtil.printError("No prices or exchange rate for currency " + currency + ", please try again.");
+                price = null;
             }
         }
 
-        List<Car> filtered = filter(allCars, brand, price, null);
+        List<Car> filtered = filter(inventory, brand, price, currency, null, null);
+        PrintUtil.printFilterResult(filtered, outputFormat);
+    }
+
+    private static void filterByBrandAndReleaseDate(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
+        PrintUtil.print("Input Brand: ");
+        String brand = scanner.nextLine().trim();
+
+        LocalDate releaseDate = readDate(scanner, "Input Release Date (yyyy,dd,mm): ");
+
+        List<Car> filtered = filter(inventory, brand, null, releaseDate, releaseDate);
         PrintUtil.printFilterResult(filtered, outputFormat);
     }
 
-    private static void filterByBrandAndReleaseDate(Scanner scanner, List<Car> allCars, OutputFormat outputFormat) {
+    private static void filterByBrandAndReleaseDateRange(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
         PrintUtil.print("Input Brand: ");
         String brand = scanner.nextLine().trim();
 
-        LocalDate releaseDate = null;
-        while (releaseDate == null) {
-            PrintUtil.print("Input Release Date (yyyy,dd,mm): ");
+        LocalDate from = readDate(scanner, "Input Release Date From (yyyy,dd,mm): ");
+        LocalDate to = readDate(scanner, "Input Release Date To (yyyy,dd,mm): ");
+        if (to.isBefore(from)) {
+            LocalDate swap = from;
+            from = to;
+            to = swap;
+        }
+
+        List<Car> filtered = filter(inventory, brand, null, from, to);
+        PrintUtil.printFilterResult(filtered, outputFormat);
+    }
+
+    private static void searchBrandOrModel(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
+        String search = "";
+        while (search.isEmpty()) {
+            PrintUtil.print("Input text to find in brand or model, or a prefix ending with * (e.g. Merc, Toy*): ");
+            search = scanner.nextLine().trim();
+            if (SearchIndex.normalize(search).isEmpty()) {
+                PrintUtil.printError("Invalid search input, please enter some text.");
+                search = "";
+            }
+        }
+
+        List<Car> found = filter(inventory, null, search, null, null, null, null);
+        if (found.isEmpty()) {
+            // suggest completions of the longest prefix of the text that has some
+            String prefix = SearchIndex.normalize(search);
+            List<SearchIndex.Completion> suggestions = List.of();
+            while (suggestions.isEmpty() && prefix.length() > 1) {
+                prefix = prefix.substring(0, prefix.length() - 1);
+                suggestions = complete(inventory, prefix, SUGGESTIONS);
+            }
+            if (!suggestions.isEmpty()) {
+                PrintUtil.println("Did you mean: " + suggestions.stream()
+                        .map(SearchIndex.Completion::text).collect(Collectors.joining(", ")) + "?");
+            }
+        }
+        PrintUtil.printFilterResult(found, outputFormat);
+    }
+
+    private static LocalDate readDate(Scanner scanner, String prompt) {
+        while (true) {
+            PrintUtil.print(prompt);
             String inputDate = scanner.nextLine().trim();
 
             try {
@@ -90,14 +230,36 @@ public final class FilterUtil {
                 int day = Integer.parseInt(parts[1]);
                 int month = Integer.parseInt(parts[2]);
 
-                releaseDate = LocalDate.of(year, month, day);
+                return LocalDate.of(year, month, day);
             } catch (Exception e) {
                 PrintUtil.printError("Invalid date format or value: " + e.getMessage() + ". Please try again.");
             }
         }
+    }
 
-        List<Car> filtered = filter(allCars, brand, null, releaseDate);
-        PrintUtil.printFilterResult(filtered, outputFormat);
+    /**
+     * Returns up to {@code limit} brands and models starting with the prefix, those with the most
+     * cars first, see {@link SearchIndex#complete}.
+     */
+    public static List<SearchIndex.Completion> complete(InventoryVersion version, String prefix, int limit) {
+        long start = System.nanoTime();
+        List<SearchIndex.Completion> completions = version.getSearchIndex().complete(prefix, limit);
+        Metrics.recordQuery(Phase.COMPLETE, start, version.getVersion(), completions.size());
+        return completions;
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date != null ? Math.toIntExact(date.toEpochDay()) : Car.NO_RELEASE_DATE;
+    }
+
+    private static boolean anyPriceAtMost(Car car, double maxPrice) {
+        for (int currency = 0; currency < car.currencySlots(); currency++) {
+            // missing prices are NaN and never match
+            if (car.priceIn(currency) <= maxPrice) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static Double parseDoubleInput(String input) {
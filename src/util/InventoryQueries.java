@@ -0,0 +1,169 @@
+package src.util;
+
+import src.models.Car;
+import src.models.InventoryVersion;
+import src.models.OutputFormat;
+import src.models.SearchIndex;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Runs filter and sort queries given as text parameters, as used by the batch and server modes.
+ * Parameter names are case-insensitive; invalid parameters are reported with an
+ * {@link IllegalArgumentException} whose message can be shown to the caller as-is.
+ */
+public final class InventoryQueries {
+
+    private static final Set<String> FILTER_PARAMETERS = Set.of("brand", "search", "maxprice", "currency", "date", "from", "to");
+    private static final Set<String> COMPLETE_PARAMETERS = Set.of("prefix", "limit");
+    private static final int DEFAULT_COMPLETIONS = 10;
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+    private static final Set<String> PAGE_PARAMETERS = Set.of("limit", "offset");
+    private static final Set<String> SORT_PARAMETERS = Set.of("limit", "offset", "currency");
+
+    private InventoryQueries() {
+    }
+
+    /**
+     * Filters by {@code brand}, {@code maxPrice} and either a release {@code date} or a {@code from}/{@code to}
+     * range (ISO dates, inclusive, either bound optional); all cars have every currency price.
+     * {@code currency} gives the currency of {@code maxPrice}, the base currency of the exchange rates by default.
+     * {@code search} matches brand or model text, {@code Merc} anywhere in the value and {@code Toy*} at its start.
+     */
+    public static List<Car> filter(InventoryVersion version, Map<String, String> parameters) {
+        Map<String, String> filter = lowerCaseKeys(parameters, FILTER_PARAMETERS);
+
+        Double maxPrice = filter.containsKey("maxprice") ? parseDouble(filter.get("maxprice"), "maxPrice") : null;
+        LocalDate from = parseDate(filter.getOrDefault("from", filter.get("date")));
+        LocalDate to = parseDate(filter.getOrDefault("to", filter.get("date")));
+        if (from != null && to != null && to.isBefore(from)) {
+            LocalDate swap = from;
+            from = to;
+            to = swap;
+        }
+        return FilterUtil.filter(version, filter.get("brand"), filter.get("search"), maxPrice, filter.get("currency"),
+                from, to);
+    }
+
+    /**
+     * Sorts by {@code price}, {@code date} or {@code brand}, ascending unless the order is {@code desc};
+     * {@code limit} and {@code offset} parameters select a page. Cars carry their default price, or with
+     * a {@code currency} parameter (price only) are sorted by and carry their price in that currency.
+     *
+     * @param order asc, desc or null for ascending
+     */
+    public static List<Car> sort(InventoryVersion version, String field, String order, Map<String, String> parameters) {
+        Map<String, String> page = lowerCaseKeys(parameters, SORT_PARAMETERS);
+        String sortField = field != null ? field.toLowerCase(Locale.ROOT) : "";
+        expect(sortField.equals("price") || sortField.equals("date") || sortField.equals("brand"),
+                "Unknown sort field: " + field + ", expected price, date or brand");
+        String sortOrder = order != null ? order.toLowerCase(Locale.ROOT) : "asc";
+        expect(sortOrder.equals("asc") || sortOrder.equals("desc"), "Unknown sort order: " + order + ", expected asc or desc");
+
+        int offset = parseCount(page, "offset", 0);
+        int limit = parseCount(page, "limit", Integer.MAX_VALUE);
+        String currency = page.get("currency");
+        if (currency != null) {
+            expect(sortField.equals("price"), "The currency parameter only applies to sorting by price");
+            return SortUtil.sortByPrice(version, currency, sortOrder, offset, limit);
+        }
+        return offset == 0 && limit == Integer.MAX_VALUE
+                ? SortUtil.sort(version, sortField, sortOrder)
+                : SortUtil.sort(version, sortField, sortOrder, offset, limit);
+    }
+
+    /**
+     * Sorts by price in the preferred currency of each type, given as {@code TYPE=CURRENCY} parameters
+     * next to the optional {@code limit} and {@code offset}.
+     */
+    public static List<Car> sortByTypeCurrency(InventoryVersion version, Map<String, String> parameters) {
+        Map<String, String> page = new HashMap<>();
+        Map<String, String> typeToCurrency = new HashMap<>();
+        parameters.forEach((key, value) -> {
+            String name = key.toLowerCase(Locale.ROOT);
+            if (PAGE_PARAMETERS.contains(name)) {
+                page.put(name, value);
+            } else {
+                typeToCurrency.put(key, value.toUpperCase(Locale.ROOT));
+            }
+        });
+        expect(!typeToCurrency.isEmpty(), "Expected at least one TYPE=CURRENCY preference");
+        return SortUtil.sortCarsByTypeCurrency(version, typeToCurrency,
+                parseCount(page, "offset", 0), parseCount(page, "limit", Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the brands and models starting with {@code prefix} (all of them if absent), those with the
+     * most cars first; {@code limit} caps their number, {@value #DEFAULT_COMPLETIONS} by default.
+     */
+    public static List<SearchIndex.Completion> complete(InventoryVersion version, Map<String, String> parameters) {
+        Map<String, String> complete = lowerCaseKeys(parameters, COMPLETE_PARAMETERS);
+        return FilterUtil.complete(version, complete.getOrDefault("prefix", ""),
+                parseCount(complete, "limit", DEFAULT_COMPLETIONS));
+    }
+
+    public static OutputFormat parseFormat(String value) {
+        try {
+            return OutputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + value
+                    + ", expected table, json, xml, ndjson, csv or binary");
+        }
+    }
+
+    private static Map<String, String> lowerCaseKeys(Map<String, String> parameters, Set<String> allowed) {
+        Map<String, String> result = new HashMap<>();
+        parameters.forEach((key, value) -> {
+            String name = key.toLowerCase(Locale.ROOT);
+            expect(allowed.contains(name), "Unknown parameter: " + key);
+            result.put(name, value);
+        });
+        return result;
+    }
+
+    /**
+     * Parses a plain, finite decimal number; {@link Double#parseDouble} alone would also take {@code NaN},
+     * {@code Infinity}, hexadecimal and {@code 30000f}, and overflow {@code 1e999} to infinity.
+     */
+    private static double parseDouble(String value, String name) {
+        expect(value != null && DECIMAL.matcher(value.trim()).matches(),
+                "Invalid " + name + ": " + value + ", expected a number");
+        double parsed = Double.parseDouble(value.trim());
+        expect(Double.isFinite(parsed), "Invalid " + name + ": " + value + ", out of range");
+        return parsed;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) return null;
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value + ", expected YYYY-MM-DD");
+        }
+    }
+
+    private static int parseCount(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int count = Integer.parseInt(value);
+            if (count >= 0) return count;
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid " + name + ": " + value + ", expected a non-negative whole number");
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
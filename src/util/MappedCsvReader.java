@@ -0,0 +1,301 @@
+package src.util;
+
+import src.metrics.Metrics;
+import src.metrics.Phase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Byte-level CSV scanner working directly on a memory-mapped file.
+ * Fields are reported as slices (offset/length) of the mapped buffer, so no intermediate
+ * lines, char arrays or field lists are created. Rows wrapped in quotes as a whole
+ * (e.g. {@code "Toyota,01/15/2023"}) are unwrapped and split in the same pass.
+ */
+public final class MappedCsvReader {
+
+    private static final byte COMMA_DELIMITER = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private MappedCsvReader() {
+    }
+
+    /**
+     * Receives the fields of every record, in order.
+     */
+    @FunctionalInterface
+    public interface FieldVisitor {
+
+        /**
+         * Called for every field of a record.
+         *
+         * @param row    zero-based record index (header excluded)
+         * @param column zero-based field index within the record
+         * @param buffer buffer holding the field bytes; must not be retained after the call
+         * @param offset absolute offset of the field in the buffer
+         * @param length field length in bytes, quotes excluded
+         */
+        void field(int row, int column, ByteBuffer buffer, int offset, int length);
+
+        /**
+         * Called once the last field of a record has been reported.
+         */
+        default void endRow(int row) {
+        }
+    }
+
+    /**
+     * Maps the CSV file and reports every record after the header line to the visitor.
+     *
+     * @param path    Path to the CSV file
+     * @param visitor receives the fields
+     * @return number of records reported
+     * @throws IOException if the file cannot be mapped
+     */
+    public static int read(Path path, FieldVisitor visitor) throws IOException {
+        ByteBuffer buffer = map(path);
+        int start = skipHeader(buffer, 0, buffer.limit());
+        return scan(buffer, start, buffer.limit(), 0, visitor);
+    }
+
+    /**
+     * Maps the whole file read-only.
+     *
+     * @throws IOException if the file cannot be mapped or exceeds the 2 GB mapping limit
+     */
+    public static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("CSV file too large to map: " + path + " (" + size + " bytes)");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Returns the offset of the first record, skipping an optional UTF-8 BOM and the header line.
+     */
+    public static int skipHeader(ByteBuffer buffer, int from, int to) {
+        int pos = skipBom(buffer, from, to);
+        while (pos < to && buffer.get(pos) != LF) {
+            pos++;
+        }
+        return pos < to ? pos + 1 : to;
+    }
+
+    /**
+     * Scans the records found between {@code from} (inclusive) and {@code to} (exclusive).
+     * {@code from} must sit at the beginning of a record.
+     *
+     * @param firstRow index reported for the first record of the range
+     * @return number of records reported
+     */
+    public static int scan(ByteBuffer buffer, int from, int to, int firstRow, FieldVisitor visitor) {
+        long start = System.nanoTime();
+        int row = firstRow;
+        int pos = from;
+        while (pos < to) {
+            int lineEnd = pos;
+            if (buffer.get(pos) == QUOTE) {
+                lineEnd = wholeRowQuoteEnd(buffer, pos, to);
+            }
+            pos = lineEnd > pos
+                    ? scanUnquoted(buffer, pos + 1, lineEnd, row, visitor, lineEnd + 1, to)
+                    : scanRecord(buffer, pos, to, row, visitor);
+            visitor.endRow(row++);
+        }
+        Metrics.record(Phase.CSV_READ, start, row - firstRow, row - firstRow);
+        return row - firstRow;
+    }
+
+    /**
+     * Decodes a field slice as UTF-8, collapsing escaped {@code ""} quotes.
+     */
+    public static String decode(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(offset + i);
+            bytes[size++] = b;
+            if (b == QUOTE && i + 1 < length && buffer.get(offset + i + 1) == QUOTE) {
+                i++;
+            }
+        }
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deduplicating decoder for fields whose values repeat across records, such as brands.
+     * Repeated values are resolved to the same String instance without decoding them again.
+     * Instances are not thread-safe.
+     */
+    public static final class StringPool {
+
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int size;
+
+        public String get(ByteBuffer buffer, int offset, int length) {
+            int hash = hash(buffer, offset, length);
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            byte[] key;
+            while ((key = keys[slot]) != null) {
+                if (matches(key, buffer, offset, length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            key = new byte[length];
+            buffer.get(offset, key);
+            String value = decode(buffer, offset, length);
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return value;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                byte[] key = oldKeys[i];
+                if (key == null) continue;
+                int slot = hash(ByteBuffer.wrap(key), 0, key.length) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+
+        private static int hash(ByteBuffer buffer, int offset, int length) {
+            int h = 1;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + buffer.get(offset + i);
+            }
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int offset, int length) {
+            if (key.length != length) return false;
+            for (int i = 0; i < length; i++) {
+                if (key[i] != buffer.get(offset + i)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static int skipBom(ByteBuffer buffer, int from, int to) {
+        if (to - from >= 3
+                && buffer.get(from) == (byte) 0xEF
+                && buffer.get(from + 1) == (byte) 0xBB
+                && buffer.get(from + 2) == (byte) 0xBF) {
+            return from + 3;
+        }
+        return from;
+    }
+
+    /**
+     * When the record starting at {@code start} is a whole row wrapped in one pair of quotes,
+     * returns the offset of the closing quote, otherwise returns {@code start}.
+     */
+    private static int wholeRowQuoteEnd(ByteBuffer buffer, int start, int to) {
+        int pos = start + 1;
+        while (pos < to) {
+            byte b = buffer.get(pos);
+            if (b == QUOTE) {
+                int next = pos + 1;
+                if (next < to && buffer.get(next) == CR) next++;
+                return next >= to || buffer.get(next) == LF ? pos : start;
+            }
+            if (b == LF) return start;
+            pos++;
+        }
+        return start;
+    }
+
+    /**
+     * Splits an unquoted region on commas and returns the offset of the next record.
+     */
+    private static int scanUnquoted(ByteBuffer buffer, int from, int end, int row,
+                                    FieldVisitor visitor, int after, int to) {
+        int column = 0;
+        int fieldStart = from;
+        for (int pos = from; pos < end; pos++) {
+            if (buffer.get(pos) == COMMA_DELIMITER) {
+                visitor.field(row, column++, buffer, fieldStart, pos - fieldStart);
+                fieldStart = pos + 1;
+            }
+        }
+        visitor.field(row, column, buffer, fieldStart, end - fieldStart);
+
+        int pos = after;
+        if (pos < to && buffer.get(pos) == CR) pos++;
+        if (pos < to && buffer.get(pos) == LF) pos++;
+        return pos;
+    }
+
+    /**
+     * Scans a record made of individually quoted or plain fields and returns the offset of the next record.
+     */
+    private static int scanRecord(ByteBuffer buffer, int from, int to, int row, FieldVisitor visitor) {
+        int column = 0;
+        int pos = from;
+        while (true) {
+            int fieldStart;
+            int fieldEnd;
+            if (pos < to && buffer.get(pos) == QUOTE) {
+                fieldStart = ++pos;
+                while (pos < to) {
+                    if (buffer.get(pos) == QUOTE) {
+                        if (pos + 1 < to && buffer.get(pos + 1) == QUOTE) {
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                fieldEnd = pos;
+                // skip the closing quote and anything up to the delimiter
+                while (pos < to && buffer.get(pos) != COMMA_DELIMITER && buffer.get(pos) != LF) {
+                    pos++;
+                }
+            } else {
+                fieldStart = pos;
+                while (pos < to && buffer.get(pos) != COMMA_DELIMITER && buffer.get(pos) != LF) {
+                    pos++;
+                }
+                fieldEnd = pos;
+                if (fieldEnd > fieldStart && (pos >= to || buffer.get(pos) == LF)
+                        && buffer.get(fieldEnd - 1) == CR) {
+                    fieldEnd--;
+                }
+            }
+            visitor.field(row, column++, buffer, fieldStart, fieldEnd - fieldStart);
+
+            if (pos >= to) {
+                return to;
+            }
+            if (buffer.get(pos++) == LF) {
+                return pos;
+            }
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package src.util;
 
+import src.metrics.Metrics;
+import src.metrics.Phase;
+import src.metrics.PhaseStats;
 import src.models.Car;
+import src.models.InventoryVersion;
 import src.models.OutputFormat;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.List;
 
 public final class PrintUtil {
 
     private static final ViewFormatter formatter = new ViewFormatter();
+    private static final double MEGABYTE = 1024 * 1024;
 
     private PrintUtil() {
     }
 
+    /**
+     * Shows tables {@code pageSize} rows at a time, asking the pager before each next page; 0 disables paging.
+     */
+    public static void setPaging(int pageSize, TableRenderer.Pager pager) {
+        formatter.setPaging(pageSize, pager);
+    }
+
     public static void printFilterResult(List<Car> cars, OutputFormat format) {
         if (cars.isEmpty()) {
             printError("No cars found for specified filter.");
@@ -21,25 +37,126 @@ public final class PrintUtil {
     }
 
     public static void printCars(List<Car> cars, OutputFormat format) {
+        long start = System.nanoTime();
         switch (format) {
             case TABLE -> formatter.printTable(cars);
-            case JSON -> System.out.println(formatter.toJSON(cars));
-            case XML -> System.out.println(formatter.toXML(cars));
+            case JSON -> writeToStdout(out -> CarSerializer.writeJSON(cars, false, out));
+            case XML -> writeToStdout(out -> CarSerializer.writeXML(cars, false, out));
+            case NDJSON -> writeToStdout(out -> CarSerializer.writeNDJSON(cars, false, out));
+            case CSV -> writeToStdout(out -> CarSerializer.writeCSV(cars, false, out));
+            case BINARY -> {
+                // raw records only, a trailing line break would corrupt piped output
+                writeBinaryToStdout(cars, false);
+                Metrics.record(Phase.RENDER, start, cars.size(), cars.size());
+                return;
+            }
             default -> printError("Invalid output format");
         }
+        Metrics.record(Phase.RENDER, start, cars.size(), cars.size());
         println("");
     }
 
     public static void printCarsWithDefaultCurrency(List<Car> cars, OutputFormat format) {
+        long start = System.nanoTime();
         switch (format) {
             case TABLE -> formatter.printTableDefaultCurrency(cars);
-            case JSON -> System.out.println(formatter.toJSONDefaultCurrency(cars));
-            case XML -> System.out.println(formatter.toXMLDefaultCurrency(cars));
+            case JSON -> writeToStdout(out -> CarSerializer.writeJSON(cars, true, out));
+            case XML -> writeToStdout(out -> CarSerializer.writeXML(cars, true, out));
+            case NDJSON -> writeToStdout(out -> CarSerializer.writeNDJSON(cars, true, out));
+            case CSV -> writeToStdout(out -> CarSerializer.writeCSV(cars, true, out));
+            case BINARY -> {
+                // raw records only, a trailing line break would corrupt piped output
+                writeBinaryToStdout(cars, true);
+                Metrics.record(Phase.RENDER, start, cars.size(), cars.size());
+                return;
+            }
             default -> printError("Invalid output format");
         }
+        Metrics.record(Phase.RENDER, start, cars.size(), cars.size());
+        println("");
+    }
+
+    /**
+     * Tells which slice of the results was shown; only in table view, so the other formats stay parseable.
+     */
+    public static void printPageInfo(int offset, int shown, int total, OutputFormat format) {
+        if (format != OutputFormat.TABLE || (offset == 0 && shown == total)) {
+            return;
+        }
+        if (shown == 0) {
+            println("No results at offset " + offset + " of " + total);
+        } else {
+            println("Showing results " + (offset + 1) + "-" + (offset + shown) + " of " + total);
+        }
+    }
+
+    /**
+     * Shows the inventory footprint, query cache counters and the timings of every phase since startup.
+     * Percentiles are accurate to 12.5%.
+     */
+    public static void printStats(InventoryVersion version) {
+        printHeader("Statistics");
+        Runtime runtime = Runtime.getRuntime();
+        println(String.format("Inventory: version %d, %d cars, about %.1f MB on heap (JVM heap: %.1f MB used of %.1f MB)",
+                version.getVersion(), version.getCars().size(), version.footprintBytes() / MEGABYTE,
+                (runtime.totalMemory() - runtime.freeMemory()) / MEGABYTE, runtime.maxMemory() / MEGABYTE));
+        QueryCache cache = QueryCache.shared();
+        println(String.format("Query cache: %d entries, %d hits, %d misses, %d evictions",
+                cache.size(), cache.hitCount(), cache.missCount(), cache.evictionCount()));
+        println("");
+        println(String.format("%-10s %8s %11s %9s %9s %9s %9s %9s %14s %14s", "Phase", "Count", "Total ms",
+                "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms", "Rows scanned", "Rows returned"));
+        for (Phase phase : Phase.values()) {
+            PhaseStats stats = Metrics.stats(phase);
+            println(String.format("%-10s %8d %11.1f %9.3f %9.3f %9.3f %9.3f %9.3f %14d %14d", stats.getName(),
+                    stats.getCount(), stats.getTotalMillis(), stats.getMeanMicros() / 1e3, stats.getP50Micros() / 1e3,
+                    stats.getP90Micros() / 1e3, stats.getP99Micros() / 1e3, stats.getMaxMicros() / 1e3,
+                    stats.getRowsScanned(), stats.getRowsReturned()));
+        }
         println("");
     }
 
+    /**
+     * Streams a document to standard output, in its encoding, followed by a line break.
+     */
+    private static void writeToStdout(Serialization serialization) {
+        Writer stdout = new Writer() {
+            @Override
+            public void write(char[] chars, int offset, int length) {
+                System.out.append(CharBuffer.wrap(chars, offset, length));
+            }
+
+            @Override
+            public void flush() {
+                System.out.flush();
+            }
+
+            @Override
+            public void close() {
+                flush();
+            }
+        };
+        try {
+            serialization.writeTo(stdout);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println();
+    }
+
+    private static void writeBinaryToStdout(List<Car> cars, boolean defaultCurrencyOnly) {
+        try {
+            CarSerializer.writeBinary(cars, defaultCurrencyOnly, System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Serialization {
+        void writeTo(Writer out) throws IOException;
+    }
+
     public static void print(String message) {
         System.out.print(message);
     }
@@ -69,7 +186,9 @@ public final class PrintUtil {
                 2. Filter inventory
                 3. Sort inventory
                 4. View inventory
-                5. Exit
+                5. Export inventory
+                6. Show statistics
+                7. Exit
                 Please enter your choice:\s""");
     }
 }
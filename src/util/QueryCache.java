@@ -0,0 +1,231 @@
+package src.util;
+
+import src.models.Car;
+import src.models.ExchangeRates;
+import src.models.InventoryIndex;
+import src.models.InventoryVersion;
+import src.models.SearchIndex;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of filter and sort results, as row ids of one inventory version.
+ * <p>
+ * Entries are keyed by a normalized {@link Query} and tagged with the {@link InventoryVersion} instance
+ * they were computed on: the first lookup against another instance with the same or a higher version
+ * number drops everything, and lookups from readers still holding an older version bypass the cache.
+ * Row ids are only ever returned for the instance they index. Lookups are lock-free; once the entry count or the
+ * total number of cached rows exceeds its bound, the least recently used entries are evicted.
+ * Cached arrays are shared between callers and must not be modified.
+ */
+public final class QueryCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final long DEFAULT_MAX_ROWS = 4_000_000L;
+
+    private static final QueryCache SHARED = new QueryCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_ROWS);
+
+    private final int maxEntries;
+    private final long maxRows;
+    private final Map<Query, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Object lock = new Object();
+
+    private volatile InventoryVersion version;
+    private long cachedRows;
+
+    public QueryCache(int maxEntries, long maxRows) {
+        if (maxEntries < 1 || maxRows < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Returns the cache shared by the filter and sort utilities.
+     */
+    public static QueryCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached rows of a query on the given inventory version, computing and caching them on a miss.
+     */
+    public int[] rows(InventoryVersion inventoryVersion, Query query, Supplier<int[]> compute) {
+        if (inventoryVersion != version && !advanceTo(inventoryVersion)) {
+            misses.increment();
+            return compute.get();
+        }
+        Entry entry = entries.get(query);
+        if (entry != null && entry.version == inventoryVersion) {
+            entry.lastAccess = clock.incrementAndGet();
+            hits.increment();
+            return entry.rows;
+        }
+        misses.increment();
+        int[] rows = compute.get();
+        if (rows.length <= maxRows) {
+            put(inventoryVersion, query, rows);
+        }
+        return rows;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            cachedRows = 0;
+        }
+    }
+
+    /**
+     * Moves the cache to another version instance, dropping all entries; returns false for one with
+     * an older version number.
+     */
+    private boolean advanceTo(InventoryVersion inventoryVersion) {
+        synchronized (lock) {
+            if (version != null && inventoryVersion.getVersion() < version.getVersion()) {
+                return false;
+            }
+            if (inventoryVersion != version) {
+                entries.clear();
+                cachedRows = 0;
+                version = inventoryVersion;
+            }
+            return true;
+        }
+    }
+
+    private void put(InventoryVersion inventoryVersion, Query query, int[] rows) {
+        synchronized (lock) {
+            if (inventoryVersion != version) {
+                return;
+            }
+            Entry previous = entries.put(query, new Entry(inventoryVersion, rows, clock.incrementAndGet()));
+            cachedRows += rows.length - (previous != null ? previous.rows.length : 0);
+            while (entries.size() > maxEntries || cachedRows > maxRows) {
+                evictLeastRecentlyUsed();
+            }
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Map.Entry<Query, Entry> oldest = null;
+        for (Map.Entry<Query, Entry> candidate : entries.entrySet()) {
+            if (oldest == null || candidate.getValue().lastAccess < oldest.getValue().lastAccess) {
+                oldest = candidate;
+            }
+        }
+        if (oldest != null && entries.remove(oldest.getKey(), oldest.getValue())) {
+            cachedRows -= oldest.getValue().rows.length;
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry {
+
+        final InventoryVersion version;
+        final int[] rows;
+        volatile long lastAccess;
+
+        Entry(InventoryVersion version, int[] rows, long lastAccess) {
+            this.version = version;
+            this.rows = rows;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Normalized description of a filter or sort request; build instances with the static factories.
+     */
+    public record Query(String operation, String brand, String search, Double maxPrice, String currency,
+                        int fromEpochDay, int toEpochDay, String sortField, boolean descending,
+                        Map<String, String> currencies) {
+
+        /**
+         * @param fromEpochDay first release epoch day, or {@link Car#NO_RELEASE_DATE}
+         * @param toEpochDay   last release epoch day, or {@link Car#NO_RELEASE_DATE}
+         */
+        public static Query filter(String brand, Double maxPrice, int fromEpochDay, int toEpochDay) {
+            return filter(brand, maxPrice, null, fromEpochDay, toEpochDay);
+        }
+
+        /**
+         * @param currency currency of {@code maxPrice}, or null for any currency
+         */
+        public static Query filter(String brand, Double maxPrice, String currency, int fromEpochDay, int toEpochDay) {
+            return filter(brand, null, maxPrice, currency, fromEpochDay, toEpochDay);
+        }
+
+        /**
+         * @param search brand or model text, see {@link SearchIndex#rows}, or null
+         */
+        public static Query filter(String brand, String search, Double maxPrice, String currency,
+                                   int fromEpochDay, int toEpochDay) {
+            String searchKey = search != null
+                    ? (SearchIndex.isPrefixQuery(search) ? SearchIndex.normalize(search) + "*" : SearchIndex.normalize(search))
+                    : null;
+            return new Query("filter", InventoryIndex.fold(brand), searchKey, maxPrice, normalizeCurrency(currency),
+                    fromEpochDay, toEpochDay, null, false, Map.of());
+        }
+
+        /**
+         * @param sortField price, date or anything else for brand
+         */
+        public static Query sort(String sortField, boolean descending) {
+            return new Query("sort", null, null, null, null, Car.NO_RELEASE_DATE, Car.NO_RELEASE_DATE,
+                    normalizeSortField(sortField), descending, Map.of());
+        }
+
+        /**
+         * Sort on the prices in one currency, quoted or converted.
+         */
+        public static Query sortByPrice(String currency, boolean descending) {
+            return new Query("sortByPrice", null, null, null, normalizeCurrency(currency), Car.NO_RELEASE_DATE,
+                    Car.NO_RELEASE_DATE, "price", descending, Map.of());
+        }
+
+        /**
+         * @param currencies preferred currency per car type, already normalized by the caller
+         */
+        public static Query sortByTypeCurrency(Map<String, String> currencies) {
+            return new Query("sortByTypeCurrency", null, null, null, null, Car.NO_RELEASE_DATE, Car.NO_RELEASE_DATE,
+                    "price", false, Map.copyOf(currencies));
+        }
+
+        private static String normalizeCurrency(String currency) {
+            return currency != null ? ExchangeRates.normalize(currency) : null;
+        }
+
+        private static String normalizeSortField(String sortField) {
+            return switch (sortField.toLowerCase()) {
+                case "price" -> "price";
+                case "date" -> "date";
+                default -> "brand";
+            };
+        }
+    }
+}
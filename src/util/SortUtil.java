@@ -1,13 +1,32 @@
 package src.util;
 
+import src.metrics.Metrics;
+import src.metrics.Phase;
 import src.models.Car;
+import src.models.CurrencyRegistry;
+import src.models.ExchangeRates;
+import src.models.Inventory;
+import src.models.InventoryVersion;
 import src.models.OutputFormat;
+import src.models.RadixSort;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 public final class SortUtil {
 
+    /**
+     * Orders cars by release epoch day, cars without a release date last.
+     */
+    private static final Comparator<Car> RELEASE_DATE_NULLS_LAST = (a, b) -> {
+        int x = a.getReleaseEpochDay();
+        int y = b.getReleaseEpochDay();
+        if (x == y) return 0;
+        if (x == Car.NO_RELEASE_DATE) return 1;
+        if (y == Car.NO_RELEASE_DATE) return -1;
+        return Integer.compare(x, y);
+    };
+
     private SortUtil() {
     }
 
@@ -16,53 +35,199 @@ public final class SortUtil {
      * Supports sorting by price, date, or brand.
      */
     public static List<Car> sort(List<Car> cars, String sortField, String order) {
-        Comparator<Car> comparator = switch (sortField.toLowerCase()) {
-            case "price" -> Comparator.comparingDouble(Car::getDefaultPrice);
-            case "date" -> Comparator.comparing(Car::getReleaseDate, Comparator.nullsLast(Comparator.naturalOrder()));
-            default -> Comparator.comparing(Car::getBrand, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+        long[] keys = switch (sortField.toLowerCase()) {
+            case "price" -> priceKeys(cars);
+            case "date" -> dateKeys(cars);
+            default -> brandKeys(cars);
         };
+        return permute(cars, keys, "desc".equalsIgnoreCase(order));
+    }
 
-        if ("desc".equalsIgnoreCase(order)) {
-            comparator = comparator.reversed();
+    /**
+     * Returns one page of {@link #sort(List, String, String)}: {@code limit} cars after skipping
+     * {@code offset}, selected with a bounded heap instead of sorting the whole list.
+     */
+    public static List<Car> sort(List<Car> cars, String sortField, String order, int offset, int limit) {
+        if (offset == 0 && limit >= cars.size()) {
+            return sort(cars, sortField, order);
         }
+        return page(cars, comparator(sortField, order), offset, limit);
+    }
 
-        return cars.stream()
-                .sorted(comparator)
-                .collect(Collectors.toList());
+    /**
+     * Columnar variant of {@link #sort(List, String, String)}: rows are ordered on the inventory
+     * columns and car views are only created for the sorted result.
+     */
+    public static List<Car> sort(Inventory inventory, String sortField, String order) {
+        return inventory.cars(inventory.sort(inventory.allRows(), sortField, "desc".equalsIgnoreCase(order)));
+    }
+
+    /**
+     * Variant of {@link #sort(Inventory, String, String)} on a loaded version: rows come from the
+     * version's precomputed {@link src.models.SortIndex} permutations and are kept in the {@link QueryCache}.
+     */
+    public static List<Car> sort(InventoryVersion version, String sortField, String order) {
+        long start = System.nanoTime();
+        boolean descending = "desc".equalsIgnoreCase(order);
+        int[] rows = QueryCache.shared().rows(version, QueryCache.Query.sort(sortField, descending), () -> {
+            Metrics.addRowsScanned(Phase.SORT, version.getInventory().size());
+            return version.getSortIndex().sorted(sortField, descending);
+        });
+        List<Car> cars = version.getInventory().cars(rows);
+        Metrics.recordQuery(Phase.SORT, start, version.getVersion(), cars.size());
+        return cars;
+    }
+
+    /**
+     * Returns one page of {@link #sort(InventoryVersion, String, String)}, read directly from the
+     * precomputed permutation.
+     */
+    public static List<Car> sort(InventoryVersion version, String sortField, String order, int offset, int limit) {
+        long start = System.nanoTime();
+        int[] rows = version.getSortIndex().sorted(sortField, "desc".equalsIgnoreCase(order), offset, limit);
+        // an ascending page reads just its slice, a descending one walks the permutation up to the page end
+        Metrics.addRowsScanned(Phase.SORT, "desc".equalsIgnoreCase(order)
+                ? Math.min((long) offset + limit, version.getInventory().size()) : rows.length);
+        List<Car> cars = version.getInventory().cars(rows);
+        Metrics.recordQuery(Phase.SORT, start, version.getVersion(), cars.size());
+        return cars;
+    }
+
+    /**
+     * Sorts by the price in one currency, quoted or converted with the version's exchange rates, and
+     * returns a page of the result. Cars without a price in the currency come last in either order;
+     * the others carry that price and currency as their default. Full orders are kept in the
+     * {@link QueryCache}, so further pages are slices of the cached order.
+     *
+     * @throws IllegalArgumentException if no car quotes the currency and it has no exchange rate
+     */
+    public static List<Car> sortByPrice(InventoryVersion version, String currency, String order, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        long start = System.nanoTime();
+        Inventory inventory = version.getInventory();
+        double[] prices = inventory.converter().column(currency);
+        boolean descending = "desc".equalsIgnoreCase(order);
+        int[] ordered = QueryCache.shared().rows(version, QueryCache.Query.sortByPrice(currency, descending),
+                () -> {
+                    Metrics.addRowsScanned(Phase.SORT, prices.length);
+                    return priceOrder(prices, descending);
+                });
+
+        int from = Math.min(offset, ordered.length);
+        int to = (int) Math.min((long) offset + limit, ordered.length);
+        int[] rows = from == 0 && to == ordered.length ? ordered : Arrays.copyOfRange(ordered, from, to);
+        List<Car> sorted = inventory.cars(rows);
+        String code = ExchangeRates.normalize(currency);
+        for (int i = 0; i < rows.length; i++) {
+            if (!Double.isNaN(prices[rows[i]])) {
+                // detached view, the inventory itself is never repriced
+                sorted.get(i).setDefaultPrice(prices[rows[i]]);
+                sorted.get(i).setDefaultCurrency(code);
+            }
+        }
+        Metrics.recordQuery(Phase.SORT, start, version.getVersion(), sorted.size());
+        return sorted;
+    }
+
+    /**
+     * Sorts a subset of a version's rows, e.g. a filter result, through the precomputed permutations.
+     */
+    public static List<Car> sort(InventoryVersion version, int[] rows, String sortField, String order) {
+        long start = System.nanoTime();
+        Metrics.addRowsScanned(Phase.SORT, rows.length);
+        List<Car> cars = version.getInventory().cars(version.getSortIndex().sort(rows, sortField, "desc".equalsIgnoreCase(order)));
+        Metrics.recordQuery(Phase.SORT, start, version.getVersion(), cars.size());
+        return cars;
     }
 
     /**
      * Sort cars by their type and preferred currency mapping.
-     * Updates default price and currency according to preference, then sorts by price ascending.
+     * Cars of a mapped type that have a price in the preferred currency are returned as copies with
+     * that price and currency as default; the given cars are never modified. Sorted by price ascending.
      */
     public static List<Car> sortCarsByTypeCurrency(List<Car> cars, Map<String, String> typeCurrencyMap) {
-        var normalizedMap = typeCurrencyMap.entrySet().stream()
-                .collect(Collectors.toMap(
-                        e -> normalizeType(e.getKey()),
-                        e -> e.getValue().toUpperCase()
-                ));
+        return sortCarsByTypeCurrency(cars, typeCurrencyMap, 0, Integer.MAX_VALUE);
+    }
 
-        cars.forEach(car -> {
-            var carType = normalizeType(car.getType());
-            var preferredCurrency = normalizedMap.get(carType);
-            if (preferredCurrency != null) {
-                var price = car.getPricesByCurrency().get(preferredCurrency);
-                if (price != null) {
-                    car.setDefaultPrice(price);
-                    car.setDefaultCurrency(preferredCurrency);
-                }
+    /**
+     * Returns one page of {@link #sortCarsByTypeCurrency(List, Map)}, selected with a bounded heap.
+     */
+    public static List<Car> sortCarsByTypeCurrency(List<Car> cars, Map<String, String> typeCurrencyMap,
+                                                   int offset, int limit) {
+        var normalizedMap = normalizeTypeCurrencies(typeCurrencyMap);
+        Map<String, Integer> preferredIds = new HashMap<>();
+
+        int[] currencies = new int[cars.size()];
+        double[] prices = new double[cars.size()];
+        for (int i = 0; i < prices.length; i++) {
+            var car = cars.get(i);
+            var preferredCurrency = normalizedMap.get(normalizeType(car.getType()));
+            int currencyId = preferredCurrency != null
+                    ? preferredIds.computeIfAbsent(preferredCurrency, CurrencyRegistry::find)
+                    : CurrencyRegistry.NONE;
+            if (car.hasPrice(currencyId)) {
+                currencies[i] = currencyId;
+                prices[i] = car.priceIn(currencyId);
+            } else {
+                currencies[i] = CurrencyRegistry.NONE;
+                prices[i] = car.getDefaultPrice();
             }
-        });
+        }
+
+        List<Car> sorted = new ArrayList<>();
+        for (int position : sortByPrice(prices, offset, limit)) {
+            var car = cars.get(position);
+            int currencyId = currencies[position];
+            sorted.add(currencyId == CurrencyRegistry.NONE ? car
+                    : car.withDefaultPrice(prices[position], CurrencyRegistry.code(currencyId)));
+        }
+        return sorted;
+    }
+
+    /**
+     * Columnar variant of {@link #sortCarsByTypeCurrency(List, Map, int, int)}: the effective prices are
+     * computed into a per-query column and only the returned car views carry the preferred currency,
+     * so concurrent queries with different preferences never see each other. Full sorts are kept in the
+     * {@link QueryCache}.
+     */
+    public static List<Car> sortCarsByTypeCurrency(InventoryVersion version, Map<String, String> typeCurrencyMap,
+                                                   int offset, int limit) {
+        long start = System.nanoTime();
+        Inventory inventory = version.getInventory();
+        var normalizedMap = normalizeTypeCurrencies(typeCurrencyMap);
+        int[] preferredByType = new int[inventory.typeCount()];
+        for (int typeId = 0; typeId < preferredByType.length; typeId++) {
+            var preferredCurrency = normalizedMap.get(normalizeType(inventory.type(typeId)));
+            preferredByType[typeId] = preferredCurrency != null ? CurrencyRegistry.find(preferredCurrency) : CurrencyRegistry.NONE;
+        }
+
+        int[] rows;
+        if (offset == 0 && limit >= inventory.size()) {
+            rows = QueryCache.shared().rows(version, QueryCache.Query.sortByTypeCurrency(normalizedMap),
+                    () -> sortByPrice(effectivePrices(inventory, preferredByType), 0, Integer.MAX_VALUE));
+        } else {
+            rows = sortByPrice(effectivePrices(inventory, preferredByType), offset, limit);
+        }
 
-        return cars.stream()
-                .sorted(Comparator.comparingDouble(Car::getDefaultPrice))
-                .collect(Collectors.toList());
+        List<Car> sorted = inventory.cars(rows);
+        for (int i = 0; i < rows.length; i++) {
+            int currencyId = preferredByType[inventory.typeId(rows[i])];
+            if (inventory.hasPrice(currencyId, rows[i])) {
+                // detached view, the inventory itself is never repriced
+                sorted.get(i).setDefaultPrice(inventory.price(currencyId, rows[i]));
+                sorted.get(i).setDefaultCurrency(CurrencyRegistry.code(currencyId));
+            }
+        }
+        Metrics.recordQuery(Phase.SORT_TYPE_CURRENCY, start, version.getVersion(), sorted.size());
+        return sorted;
     }
 
     /**
      * Interactive method to sort inventory using Scanner input.
      */
-    public static void sortInventory(Scanner scanner, List<Car> allCars, OutputFormat outputFormat) {
+    public static void sortInventory(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
         while (true) {
             PrintUtil.println("Sort Options:");
             PrintUtil.println("1. Sort by Price");
@@ -73,15 +238,15 @@ public final class SortUtil {
 
             switch (choice) {
                 case "1" -> {
-                    sortByPrice(scanner, allCars, outputFormat);
+                    sortByPrice(scanner, inventory, outputFormat);
                     return;
                 }
                 case "2" -> {
-                    sortByDate(scanner, allCars, outputFormat);
+                    sortByDate(scanner, inventory, outputFormat);
                     return;
                 }
                 case "3" -> {
-                    sortByTypeAndCurrency(scanner, allCars, outputFormat);
+                    sortByTypeAndCurrency(scanner, inventory, outputFormat);
                     return;
                 }
                 default -> PrintUtil.printError("Invalid input, valid inputs are: 1, 2 or 3");
@@ -89,19 +254,29 @@ public final class SortUtil {
         }
     }
 
-    private static void sortByPrice(Scanner scanner, List<Car> allCars, OutputFormat outputFormat) {
+    private static void sortByPrice(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
+        var currency = getCurrency(scanner, inventory);
         var dir = getSortDirection(scanner);
-        var sorted = sort(allCars, "price", dir);
+        var page = getPage(scanner);
+        List<Car> sorted;
+        if (currency != null) {
+            sorted = sortByPrice(inventory, currency, dir, page.offset(), page.limit());
+        } else {
+            sorted = page.isAll() ? sort(inventory, "price", dir) : sort(inventory, "price", dir, page.offset(), page.limit());
+        }
         PrintUtil.printCarsWithDefaultCurrency(sorted, outputFormat);
+        PrintUtil.printPageInfo(page.offset(), sorted.size(), inventory.getInventory().size(), outputFormat);
     }
 
-    private static void sortByDate(Scanner scanner, List<Car> allCars, OutputFormat outputFormat) {
+    private static void sortByDate(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
         var dir = getSortDirection(scanner);
-        var sorted = sort(allCars, "date", dir);
+        var page = getPage(scanner);
+        var sorted = page.isAll() ? sort(inventory, "date", dir) : sort(inventory, "date", dir, page.offset(), page.limit());
         PrintUtil.printCarsWithDefaultCurrency(sorted, outputFormat);
+        PrintUtil.printPageInfo(page.offset(), sorted.size(), inventory.getInventory().size(), outputFormat);
     }
 
-    private static void sortByTypeAndCurrency(Scanner scanner, List<Car> allCars, OutputFormat outputFormat) {
+    private static void sortByTypeAndCurrency(Scanner scanner, InventoryVersion inventory, OutputFormat outputFormat) {
         PrintUtil.println("Enter type and currency separated by comma (e.g. sedan,usd). Input any digit to finish.");
         PrintUtil.println("\u001B[31mInvalid entries will be ignored.\u001B[0m");
 
@@ -121,11 +296,30 @@ public final class SortUtil {
             typeToCurrency.put(parts[0].trim(), parts[1].trim().toUpperCase());
             PrintUtil.printSuccess("Input recorded. Add more or enter a digit to finish.");
         }
-        var sorted = sortCarsByTypeCurrency(allCars, typeToCurrency);
+        var page = getPage(scanner);
+        var sorted = sortCarsByTypeCurrency(inventory, typeToCurrency, page.offset(), page.limit());
         PrintUtil.printCarsWithDefaultCurrency(sorted, outputFormat);
+        PrintUtil.printPageInfo(page.offset(), sorted.size(), inventory.getInventory().size(), outputFormat);
         PrintUtil.println("");
     }
 
+    /**
+     * Asks for the currency to compare prices in; an empty answer keeps the base currency
+     * (or, without exchange rates, each car's default price) and returns null.
+     */
+    private static String getCurrency(Scanner scanner, InventoryVersion inventory) {
+        var baseCurrency = inventory.getExchangeRates().baseCurrency();
+        while (true) {
+            PrintUtil.print(baseCurrency != null
+                    ? "Enter currency to sort by (press Enter for " + baseCurrency + "): "
+                    : "Enter currency to sort by (press Enter for each car's default price): ");
+            var input = scanner.nextLine().trim();
+            if (input.isEmpty()) return null;
+            if (inventory.getInventory().converter().supports(input)) return input;
+            PrintUtil.printError("No prices or exchange rate for currency " + input + ", please try again.");
+        }
+    }
+
     private static String getSortDirection(Scanner scanner) {
         while (true) {
             PrintUtil.println("Enter sort direction:");
@@ -141,6 +335,173 @@ public final class SortUtil {
         }
     }
 
+    /**
+     * Asks how many results to show and how many to skip; empty answers show everything.
+     */
+    private static Page getPage(Scanner scanner) {
+        int limit = readCount(scanner, "Enter number of results to show (press Enter for all): ", Integer.MAX_VALUE);
+        int offset = readCount(scanner, "Enter number of results to skip (press Enter for none): ", 0);
+        return new Page(offset, limit);
+    }
+
+    private static int readCount(Scanner scanner, String prompt, int defaultValue) {
+        while (true) {
+            PrintUtil.print(prompt);
+            var input = scanner.nextLine().trim();
+            if (input.isEmpty()) return defaultValue;
+            try {
+                int value = Integer.parseInt(input);
+                if (value >= 0) return value;
+            } catch (NumberFormatException ignored) {
+                // re-prompt below
+            }
+            PrintUtil.printError("Invalid input, please enter a non-negative whole number.");
+        }
+    }
+
+    private static Comparator<Car> comparator(String sortField, String order) {
+        Comparator<Car> comparator = switch (sortField.toLowerCase()) {
+            case "price" -> Comparator.comparingDouble(Car::getDefaultPrice);
+            case "date" -> RELEASE_DATE_NULLS_LAST;
+            default -> Comparator.comparing(Car::getBrand, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+        };
+
+        if ("desc".equalsIgnoreCase(order)) {
+            comparator = comparator.reversed();
+        }
+        return comparator;
+    }
+
+    /**
+     * Stable radix sort of the cars by primitive keys; descending keeps equal cars in their original order.
+     */
+    private static List<Car> permute(List<Car> cars, long[] keys, boolean descending) {
+        if (descending) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = RadixSort.descending(keys[i]);
+            }
+        }
+        List<Car> sorted = new ArrayList<>(cars.size());
+        for (int position : RadixSort.sort(keys)) {
+            sorted.add(cars.get(position));
+        }
+        return sorted;
+    }
+
+    private static long[] priceKeys(List<Car> cars) {
+        long[] keys = new long[cars.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = RadixSort.priceKey(cars.get(i).getDefaultPrice());
+        }
+        return keys;
+    }
+
+    /**
+     * Epoch-day keys, cars without a release date last.
+     */
+    private static long[] dateKeys(List<Car> cars) {
+        long[] keys = new long[cars.size()];
+        for (int i = 0; i < keys.length; i++) {
+            int epochDay = cars.get(i).getReleaseEpochDay();
+            keys[i] = RadixSort.intKey(epochDay == Car.NO_RELEASE_DATE ? Integer.MAX_VALUE : epochDay);
+        }
+        return keys;
+    }
+
+    /**
+     * Case-insensitive rank of each car's brand among the distinct brands, cars without a brand last.
+     */
+    private static long[] brandKeys(List<Car> cars) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (Car car : cars) {
+            if (car.getBrand() != null) ranks.putIfAbsent(car.getBrand(), 0);
+        }
+        List<String> brands = new ArrayList<>(ranks.keySet());
+        brands.sort(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0, rank = 0; i < brands.size(); i++) {
+            if (i > 0 && String.CASE_INSENSITIVE_ORDER.compare(brands.get(i - 1), brands.get(i)) != 0) {
+                rank = i;
+            }
+            ranks.put(brands.get(i), rank);
+        }
+
+        long[] keys = new long[cars.size()];
+        for (int i = 0; i < keys.length; i++) {
+            String brand = cars.get(i).getBrand();
+            keys[i] = RadixSort.intKey(brand == null ? Integer.MAX_VALUE : ranks.get(brand));
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the positions of one page of the given prices in stable ascending order.
+     */
+    private static int[] sortByPrice(double[] prices, int offset, int limit) {
+        if (offset == 0 && limit >= prices.length) {
+            long[] keys = new long[prices.length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = RadixSort.priceKey(prices[i]);
+            }
+            return RadixSort.sort(keys);
+        }
+        return TopK.select(prices.length, offset, limit, (a, b) -> Double.compare(prices[a], prices[b]));
+    }
+
+    /**
+     * Returns all rows stably ordered by a price column, rows without a price (NaN) last in row order.
+     */
+    private static int[] priceOrder(double[] prices, boolean descending) {
+        int priced = 0;
+        for (double price : prices) {
+            if (!Double.isNaN(price)) priced++;
+        }
+        long[] keys = new long[priced];
+        int[] rows = new int[priced];
+        int[] unpriced = new int[prices.length - priced];
+        for (int row = 0, i = 0, j = 0; row < prices.length; row++) {
+            if (Double.isNaN(prices[row])) {
+                unpriced[j++] = row;
+            } else {
+                long key = RadixSort.priceKey(prices[row]);
+                keys[i] = descending ? RadixSort.descending(key) : key;
+                rows[i++] = row;
+            }
+        }
+        int[] ordered = Arrays.copyOf(RadixSort.sort(keys, rows), prices.length);
+        System.arraycopy(unpriced, 0, ordered, priced, unpriced.length);
+        return ordered;
+    }
+
+    private static double[] effectivePrices(Inventory inventory, int[] preferredByType) {
+        Metrics.addRowsScanned(Phase.SORT_TYPE_CURRENCY, inventory.size());
+        double[] prices = new double[inventory.size()];
+        for (int row = 0; row < prices.length; row++) {
+            int currencyId = preferredByType[inventory.typeId(row)];
+            prices[row] = inventory.hasPrice(currencyId, row)
+                    ? inventory.price(currencyId, row)
+                    : inventory.defaultPrice(row);
+        }
+        return prices;
+    }
+
+    private static Map<String, String> normalizeTypeCurrencies(Map<String, String> typeCurrencyMap) {
+        return typeCurrencyMap.entrySet().stream()
+                .collect(Collectors.toMap(
+                        e -> normalizeType(e.getKey()),
+                        e -> e.getValue().toUpperCase()
+                ));
+    }
+
+    private static List<Car> page(List<Car> cars, Comparator<Car> comparator, int offset, int limit) {
+        int[] positions = TopK.select(cars.size(), offset, limit,
+                (a, b) -> comparator.compare(cars.get(a), cars.get(b)));
+        List<Car> page = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            page.add(cars.get(position));
+        }
+        return page;
+    }
+
     private static String normalizeType(String key) {
         if (key == null) return null;
         return switch (key.toLowerCase()) {
@@ -150,4 +511,11 @@ public final class SortUtil {
             default -> key.toUpperCase();
         };
     }
+
+    private record Page(int offset, int limit) {
+
+        boolean isAll() {
+            return offset == 0 && limit == Integer.MAX_VALUE;
+        }
+    }
 }
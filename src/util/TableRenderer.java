@@ -0,0 +1,341 @@
+package src.util;
+
+import src.models.Car;
+import src.models.CurrencyRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Renders the console car tables of {@link ViewFormatter} without {@code printf}.
+ * <p>
+ * The layout (title, header and separator lines, currency columns) is computed once per table.
+ * Cells are padded straight into a reusable byte buffer that is flushed in large blocks, and prices
+ * are written as fixed-point digits without allocating; values the digit routine cannot format
+ * exactly like {@code %.2f} (ties at the third decimal, huge or negative values, non-ASCII locales)
+ * go through {@link String#format}. Optionally, rows are shown one page at a time.
+ */
+public final class TableRenderer {
+
+    private static final String TITLE = "CAR INVENTORY";
+    private static final int COLUMN_WIDTH = 15;
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Largest absolute price written by the digit routine; cents stay exact well below this. */
+    private static final double MAX_FAST_PRICE = 1e9;
+    /** Cent fractions closer than this to one half are rounded by {@link String#format}. */
+    private static final double TIE_TOLERANCE = 1e-3;
+
+    /**
+     * Decides, after each full page, whether to render the next one.
+     */
+    @FunctionalInterface
+    public interface Pager {
+        boolean nextPage(int shownRows, int totalRows);
+    }
+
+    private final Supplier<OutputStream> out;
+    private final Charset charset;
+    private final boolean asciiCompatible;
+    private final boolean fastDecimals;
+    private final byte[] newLine;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private int pageSize;
+    private Pager pager;
+
+    public TableRenderer(OutputStream out, Charset charset) {
+        this(() -> out, charset);
+    }
+
+    private TableRenderer(Supplier<OutputStream> out, Charset charset) {
+        this.out = out;
+        this.charset = charset;
+        this.asciiCompatible = "Az09 -.".equals(new String("Az09 -.".getBytes(charset), StandardCharsets.US_ASCII));
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.fastDecimals = asciiCompatible && symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.';
+        this.newLine = System.lineSeparator().getBytes(charset);
+    }
+
+    /**
+     * Creates a renderer writing to the current {@link System#out}, in the encoding of standard output.
+     */
+    public static TableRenderer stdout() {
+        return new TableRenderer(() -> System.out, stdoutCharset());
+    }
+
+    /**
+     * Shows at most {@code pageSize} rows before asking the pager whether to go on; 0 disables paging.
+     */
+    public void setPaging(int pageSize, Pager pager) {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("Page size must not be negative");
+        }
+        this.pageSize = pageSize;
+        this.pager = pager;
+    }
+
+    /**
+     * Renders one column per currency found in the cars, like {@link ViewFormatter#printTable}.
+     */
+    public void renderAllCurrencies(List<Car> cars) {
+        Set<String> currencies = collectCurrencies(cars);
+        int[] currencyIds = currencies.stream().mapToInt(CurrencyRegistry::find).toArray();
+        int tableWidth = COLUMN_WIDTH * (4 + currencies.size());
+
+        List<String> header = new ArrayList<>(List.of("Brand", "Model", "Type", "ReleaseDate"));
+        currencies.forEach(currency -> header.add("Price(" + currency + ")"));
+        byte[] line = "=".repeat(tableWidth).getBytes(charset);
+        writeTitle(line, tableWidth);
+        for (int i = 0; i < header.size(); i++) {
+            if (i > 0) writeByte(' ');
+            writePadded(header.get(i));
+        }
+        writeBytes(newLine);
+        writeLine(line);
+
+        renderRows(cars, line, car -> {
+            writePadded(car.getBrand());
+            writeByte(' ');
+            writePadded(car.getModel());
+            writeByte(' ');
+            writePadded(car.getType());
+            writeByte(' ');
+            writeDatePadded(car);
+            for (int currencyId : currencyIds) {
+                writeByte(' ');
+                pad(writePrice(car.hasPrice(currencyId) ? car.priceIn(currencyId) : 0.0));
+            }
+            writeBytes(newLine);
+        });
+    }
+
+    /**
+     * Renders the default price and currency of each car, like {@link ViewFormatter#printTableDefaultCurrency}.
+     */
+    public void renderDefaultCurrency(List<Car> cars) {
+        int tableWidth = COLUMN_WIDTH * 5;
+        byte[] line = "=".repeat(tableWidth).getBytes(charset);
+        writeTitle(line, tableWidth);
+        String[] header = {"Brand", "Model", "Type", "Price", "ReleaseDate"};
+        for (int i = 0; i < header.length; i++) {
+            if (i > 0) writeByte(' ');
+            writePadded(header[i]);
+        }
+        writeBytes(newLine);
+        writeLine(line);
+
+        renderRows(cars, line, car -> {
+            writePadded(car.getBrand());
+            writeByte(' ');
+            writePadded(car.getModel());
+            writeByte(' ');
+            writePadded(car.getType());
+            writeByte(' ');
+            int chars = writePrice(car.getDefaultPrice());
+            writeByte(' ');
+            chars += 1 + writeText(String.valueOf(car.getDefaultCurrency()));
+            pad(chars);
+            writeByte(' ');
+            writeDatePadded(car);
+            writeBytes(newLine);
+        });
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Car car);
+    }
+
+    private void renderRows(List<Car> cars, byte[] line, RowWriter rowWriter) {
+        int total = cars.size();
+        for (int i = 0; i < total; i++) {
+            rowWriter.write(cars.get(i));
+            int shown = i + 1;
+            if (pageSize > 0 && pager != null && shown % pageSize == 0 && shown < total) {
+                flush();
+                if (!pager.nextPage(shown, total)) break;
+            }
+        }
+        writeLine(line);
+        flush();
+    }
+
+    private void writeTitle(byte[] line, int tableWidth) {
+        int padding = (tableWidth - TITLE.length()) / 2;
+        writeLine(line);
+        for (int i = 0; i < padding; i++) writeByte(' ');
+        writeText(TITLE);
+        writeBytes(newLine);
+        writeLine(line);
+    }
+
+    private void writeLine(byte[] line) {
+        writeBytes(line);
+        writeBytes(newLine);
+    }
+
+    /**
+     * Writes a text left-justified in a column, like {@code %-15s}: null as "null", never truncated.
+     */
+    private void writePadded(String text) {
+        pad(writeText(text != null ? text : "null"));
+    }
+
+    private void writeDatePadded(Car car) {
+        if (!car.hasReleaseDate()) {
+            writePadded("N/A");
+            return;
+        }
+        LocalDate date = car.getReleaseDate();
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            writePadded(date.toString());
+            return;
+        }
+        writeDigits(year, 4);
+        writeByte('-');
+        writeDigits(date.getMonthValue(), 2);
+        writeByte('-');
+        writeDigits(date.getDayOfMonth(), 2);
+        pad(10);
+    }
+
+    private void pad(int written) {
+        for (int i = written; i < COLUMN_WIDTH; i++) {
+            writeByte(' ');
+        }
+    }
+
+    /**
+     * Writes a text and returns its length in chars.
+     */
+    private int writeText(String text) {
+        int length = text.length();
+        if (asciiCompatible) {
+            ensure(length);
+            int i = 0;
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) break;
+                buffer[position++] = (byte) c;
+            }
+            if (i == length) return length;
+            position -= i;
+        }
+        writeBytes(text.getBytes(charset));
+        return length;
+    }
+
+    /**
+     * Writes a price like {@code %.2f} and returns the number of chars written.
+     */
+    private int writePrice(double price) {
+        if (fastDecimals && price >= 0 && price < MAX_FAST_PRICE && Double.doubleToRawLongBits(price) != Long.MIN_VALUE) {
+            double scaled = price * 100;
+            long cents = (long) Math.floor(scaled);
+            double fraction = scaled - cents;
+            if (Math.abs(fraction - 0.5) > TIE_TOLERANCE) {
+                if (fraction > 0.5) cents++;
+                long units = cents / 100;
+                int digits = 1;
+                for (long rest = units; rest >= 10; rest /= 10) {
+                    digits++;
+                }
+                ensure(digits + 3);
+                writeDigits(units, digits);
+                buffer[position++] = '.';
+                writeDigits(cents % 100, 2);
+                return digits + 3;
+            }
+        }
+        return writeText(String.format("%.2f", price));
+    }
+
+    private void writeDigits(long value, int digits) {
+        ensure(digits);
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[position + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void writeByte(int b) {
+        ensure(1);
+        buffer[position++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        if (bytes.length > buffer.length) {
+            flush();
+            write(bytes, bytes.length);
+            return;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensure(int bytes) {
+        if (position + bytes > buffer.length) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        write(buffer, position);
+        position = 0;
+        try {
+            out.get().flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(byte[] bytes, int length) {
+        try {
+            out.get().write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Collects the currency codes priced in any car, without building a price map per car.
+     */
+    private static Set<String> collectCurrencies(List<Car> cars) {
+        boolean[] seen = new boolean[CurrencyRegistry.count()];
+        Set<String> currencies = new HashSet<>();
+        for (Car car : cars) {
+            int slots = Math.min(car.currencySlots(), seen.length);
+            for (int currencyId = 0; currencyId < slots; currencyId++) {
+                if (!seen[currencyId] && car.hasPrice(currencyId)) {
+                    seen[currencyId] = true;
+                    currencies.add(CurrencyRegistry.code(currencyId));
+                }
+            }
+        }
+        return currencies;
+    }
+
+    private static Charset stdoutCharset() {
+        String encoding = System.getProperty("sun.stdout.encoding");
+        try {
+            return encoding != null ? Charset.forName(encoding) : Charset.defaultCharset();
+        } catch (IllegalArgumentException e) {
+            return Charset.defaultCharset();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package src.util;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Partial selection of the first results of a sort, with a bounded binary heap of candidate
+ * positions: selecting {@code k = offset + limit} out of {@code n} costs O(n log k) time and O(k)
+ * memory instead of a full sort. Selection is stable, equal candidates keep their original order.
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Returns the positions {@code offset} to {@code offset + limit} (exclusive) that a stable
+     * ascending sort of {@code count} candidates would produce.
+     *
+     * @param comparator compares two candidate positions
+     */
+    public static int[] select(int count, int offset, int limit, IntBinaryOperator comparator) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        int k = (int) Math.min((long) offset + limit, count);
+        if (offset >= k) {
+            return new int[0];
+        }
+
+        // max-heap of the k smallest candidates seen so far, ties broken by position
+        int[] heap = new int[k];
+        int size = 0;
+        for (int candidate = 0; candidate < count; candidate++) {
+            if (size < k) {
+                heap[size] = candidate;
+                siftUp(heap, size++, comparator);
+            } else if (isAfter(heap[0], candidate, comparator)) {
+                heap[0] = candidate;
+                siftDown(heap, size, comparator);
+            }
+        }
+
+        int[] page = new int[k - offset];
+        while (size > offset) {
+            int largest = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, comparator);
+            page[size - offset] = largest;
+        }
+        return page;
+    }
+
+    private static boolean isAfter(int a, int b, IntBinaryOperator comparator) {
+        int c = comparator.applyAsInt(a, b);
+        return c > 0 || (c == 0 && a > b);
+    }
+
+    private static void siftUp(int[] heap, int index, IntBinaryOperator comparator) {
+        int item = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isAfter(item, heap[parent], comparator)) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, IntBinaryOperator comparator) {
+        int index = 0;
+        int item = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && isAfter(heap[child + 1], heap[child], comparator)) child++;
+            if (!isAfter(heap[child], item, comparator)) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = item;
+    }
+}
@@ -1,16 +1,29 @@
 package src.util;
 
 import org.w3c.dom.*;
+import src.metrics.Metrics;
+import src.metrics.Phase;
 import src.models.Car;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class XmlParser {
 
+    private static final XMLInputFactory STAX_FACTORY = createStaxFactory();
+
     public List<Car> parse(Path path) throws Exception {
+        long start = System.nanoTime();
         List<Car> cars = new ArrayList<>();
 
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -52,9 +65,128 @@ public class XmlParser {
 
             cars.add(new Car(model, type, defaultPrice, prices));
         }
+        Metrics.record(Phase.XML_PARSE, start, carNodes.getLength(), cars.size());
+        return cars;
+    }
+
+    /**
+     * Parses the XML file with a pull parser, keeping only the car currently being read in memory.
+     * Each car is handed to the consumer as soon as its closing tag is reached.
+     *
+     * @param path     Path to the XML file
+     * @param consumer receives every parsed car in document order
+     * @throws IOException        if file reading fails
+     * @throws XMLStreamException if the document is not well-formed
+     */
+    public void parseStreaming(Path path, Consumer<Car> consumer) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(path)) {
+            parseStreaming(in, consumer);
+        }
+    }
+
+    /**
+     * Same as {@link #parseStreaming(Path, Consumer)} but reads from an already opened stream.
+     * The stream is not closed by this method.
+     */
+    public void parseStreaming(InputStream in, Consumer<Car> consumer) throws XMLStreamException {
+        long start = System.nanoTime();
+        int count = 0;
+        XMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(in);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "car".equals(reader.getLocalName())) {
+                    consumer.accept(readCar(reader));
+                    count++;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        Metrics.record(Phase.XML_PARSE, start, count, count);
+    }
+
+    /**
+     * Streaming counterpart of {@link #parse(Path)}, collecting the cars into a list.
+     */
+    public List<Car> parseStreaming(Path path) throws IOException, XMLStreamException {
+        List<Car> cars = new ArrayList<>();
+        parseStreaming(path, cars::add);
         return cars;
     }
 
+    /**
+     * Reads a single car, the reader being positioned on its start tag.
+     * Mirrors the DOM lookups: the first type, model and price found inside the car win,
+     * and entries of the prices block override the default price for the same currency.
+     */
+    private static Car readCar(XMLStreamReader reader) throws XMLStreamException {
+        String type = null;
+        String model = null;
+        double defaultPrice = 0;
+        String defaultCurrency = null;
+        boolean hasDefaultPrice = false;
+        Map<String, Double> listedPrices = new LinkedHashMap<>();
+        boolean inPrices = false;
+        int depth = 1;
+
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("prices".equals(reader.getLocalName())) {
+                    inPrices = false;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            switch (reader.getLocalName()) {
+                case "type" -> {
+                    String text = reader.getElementText().trim();
+                    if (type == null) type = text;
+                }
+                case "model" -> {
+                    String text = reader.getElementText().trim();
+                    if (model == null) model = text;
+                }
+                case "prices" -> {
+                    inPrices = true;
+                    depth++;
+                }
+                case "price" -> {
+                    String currency = reader.getAttributeValue(null, "currency");
+                    double value = parseDouble(reader.getElementText());
+                    if (!hasDefaultPrice) {
+                        hasDefaultPrice = true;
+                        defaultCurrency = currency != null ? currency : "";
+                        defaultPrice = value;
+                    }
+                    if (inPrices) {
+                        listedPrices.put(currency != null ? currency : "", value);
+                    }
+                }
+                default -> depth++;
+            }
+        }
+
+        Map<String, Double> prices = new HashMap<>();
+        if (defaultCurrency != null) {
+            prices.put(defaultCurrency, defaultPrice);
+        }
+        prices.putAll(listedPrices);
+        return new Car(model, type, defaultPrice, prices);
+    }
+
+    private static XMLInputFactory createStaxFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
     private static String getTextContent(Element parent, String tagName) {
         Element el = getFirstElement(parent, tagName);
         return el != null ? el.getTextContent().trim() : null;